@@ -0,0 +1,39 @@
+package com.institute.portal.user_service.audit;
+
+import java.time.Instant;
+
+public class AuditEvent {
+    // Column widths of audit_log (AuditRecord); longer client-supplied values would fail the insert
+    static final int MAX_USERNAME = 255;
+    static final int MAX_IP = 64;
+    static final int MAX_DETAIL = 255;
+
+    private final Instant timestamp;
+    private final AuditEventType type;
+    private final String username;
+    private final String ip;
+    private final String detail;
+
+    public AuditEvent(AuditEventType type, String username, String ip, String detail) {
+        this.timestamp = Instant.now();
+        this.type = type;
+        this.username = truncate(username, MAX_USERNAME);
+        this.ip = truncate(ip, MAX_IP);
+        this.detail = truncate(detail, MAX_DETAIL);
+    }
+
+    private static String truncate(String value, int max) {
+        if (value == null || value.length() <= max) {
+            return value;
+        }
+        // Don't leave half a surrogate pair at the end
+        int end = Character.isHighSurrogate(value.charAt(max - 1)) ? max - 1 : max;
+        return value.substring(0, end);
+    }
+
+    public Instant getTimestamp() { return timestamp; }
+    public AuditEventType getType() { return type; }
+    public String getUsername() { return username; }
+    public String getIp() { return ip; }
+    public String getDetail() { return detail; }
+}
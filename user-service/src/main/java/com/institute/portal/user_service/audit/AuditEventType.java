@@ -0,0 +1,10 @@
+package com.institute.portal.user_service.audit;
+
+public enum AuditEventType {
+    LOGIN_SUCCESS,
+    LOGIN_FAILURE,
+    LOGIN_BLOCKED,
+    REGISTER,
+    PROFILE_UPDATE,
+    USER_DELETE
+}
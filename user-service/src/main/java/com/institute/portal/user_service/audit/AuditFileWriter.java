@@ -0,0 +1,109 @@
+package com.institute.portal.user_service.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+// Append-only tab-separated audit file, rolled over to <name>.<timestamp> once it reaches maxBytes
+class AuditFileWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditFileWriter.class);
+
+    private static final DateTimeFormatter ROTATION_SUFFIX =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final Path file;
+    private final long maxBytes;
+    private FileChannel channel;
+    private boolean rotationFailing;
+
+    AuditFileWriter(Path file, long maxBytes) throws IOException {
+        this.file = file;
+        this.maxBytes = maxBytes;
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        open();
+    }
+
+    void write(List<AuditEvent> batch) throws IOException {
+        if (!channel.isOpen()) {
+            // A previous reopen failed; try again rather than failing every batch from now on
+            open();
+        }
+
+        StringBuilder sb = new StringBuilder(batch.size() * 96);
+        for (AuditEvent event : batch) {
+            sb.append(event.getTimestamp()).append('\t')
+                    .append(event.getType()).append('\t')
+                    .append(clean(event.getUsername())).append('\t')
+                    .append(clean(event.getIp())).append('\t')
+                    .append(clean(event.getDetail())).append('\n');
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(sb.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        if (channel.size() >= maxBytes) {
+            // The batch is already on disk, so a failed rotation is retried on the next batch instead of failing this one
+            try {
+                rotate();
+                rotationFailing = false;
+            } catch (IOException e) {
+                if (!rotationFailing) {
+                    log.error("Rotating audit log {} failed, still appending to it", file, e);
+                    rotationFailing = true;
+                }
+                if (!channel.isOpen()) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void rotate() throws IOException {
+        try {
+            channel.close();
+            Files.move(file, rotatedPath(), StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            // Opens the fresh file, or keeps appending to the current one if the move failed
+            open();
+        }
+    }
+
+    Path rotatedPath() {
+        return file.resolveSibling(file.getFileName() + "." + ROTATION_SUFFIX.format(Instant.now()));
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    // Keep user-supplied values from breaking the one-event-per-line format
+    private static String clean(String value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
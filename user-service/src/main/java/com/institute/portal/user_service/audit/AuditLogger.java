@@ -0,0 +1,172 @@
+package com.institute.portal.user_service.audit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail. Request threads only enqueue into a lock-free ring
+ * buffer; a single background thread drains it in batches to a rotated local
+ * file and, if enabled, to the audit_log table. When the buffer is full events
+ * are dropped and counted rather than making the caller wait.
+ */
+@Component
+public class AuditLogger {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditLogger.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO audit_log (event_time, event_type, username, ip, detail) VALUES (?, ?, ?, ?, ?)";
+
+    private final AuditRingBuffer buffer;
+    private final JdbcTemplate jdbcTemplate;
+    private final Path file;
+    private final long maxFileBytes;
+    private final int batchSize;
+    private final boolean jdbcEnabled;
+    private final long idleParkNanos;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public AuditLogger(JdbcTemplate jdbcTemplate,
+                       @Value("${audit.buffer-size:8192}") int bufferSize,
+                       @Value("${audit.batch-size:256}") int batchSize,
+                       @Value("${audit.file.path:logs/audit.log}") String file,
+                       @Value("${audit.file.max-bytes:52428800}") long maxFileBytes,
+                       @Value("${audit.jdbc.enabled:false}") boolean jdbcEnabled,
+                       @Value("${audit.idle-ms:5}") long idleMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new AuditRingBuffer(bufferSize);
+        this.batchSize = batchSize;
+        this.file = Path.of(file);
+        this.maxFileBytes = maxFileBytes;
+        this.jdbcEnabled = jdbcEnabled;
+        this.idleParkNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    }
+
+    public void log(AuditEventType type, String username, String ip, String detail) {
+        if (buffer.offer(new AuditEvent(type, username, ip, detail))) {
+            accepted.incrementAndGet();
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Logs once the surrounding transaction commits, so a change that is rolled
+     * back is never audited as done. Outside a transaction this logs immediately.
+     */
+    public void logAfterCommit(AuditEventType type, String username, String ip, String detail) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            log(type, username, ip, detail);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                log(type, username, ip, detail);
+            }
+        });
+    }
+
+    public long getAcceptedCount() {
+        return accepted.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        AuditFileWriter fileWriter = new AuditFileWriter(file, maxFileBytes);
+        running = true;
+        writer = new Thread(() -> drainLoop(fileWriter), "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Audit log writing to {} (buffer {}, jdbc {})", file.toAbsolutePath(), buffer.capacity(), jdbcEnabled);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    private void drainLoop(AuditFileWriter fileWriter) {
+        List<AuditEvent> batch = new ArrayList<>(batchSize);
+        long reportedDrops = 0;
+
+        try (fileWriter) {
+            while (true) {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    if (!running) {
+                        break;
+                    }
+                    LockSupport.parkNanos(idleParkNanos);
+                    continue;
+                }
+
+                writeBatch(fileWriter, batch);
+                batch.clear();
+
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    log.warn("Audit buffer full, {} events dropped so far", drops);
+                    reportedDrops = drops;
+                }
+            }
+        } catch (IOException e) {
+            log.error("Closing audit log failed", e);
+        }
+    }
+
+    private void writeBatch(AuditFileWriter fileWriter, List<AuditEvent> batch) {
+        try {
+            fileWriter.write(batch);
+        } catch (IOException e) {
+            failed.addAndGet(batch.size());
+            log.error("Writing {} audit events to file failed", batch.size(), e);
+        }
+
+        if (jdbcEnabled) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, event) -> {
+                    ps.setTimestamp(1, Timestamp.from(event.getTimestamp()));
+                    ps.setString(2, event.getType().name());
+                    ps.setString(3, event.getUsername());
+                    ps.setString(4, event.getIp());
+                    ps.setString(5, event.getDetail());
+                });
+            } catch (RuntimeException e) {
+                failed.addAndGet(batch.size());
+                log.error("Inserting {} audit events failed", batch.size(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.institute.portal.user_service.coherence;
+
+import com.institute.portal.user_service.model.CacheInvalidation;
+import com.institute.portal.user_service.repository.CacheInvalidationRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Keeps node-local state coherent across user-service instances without a
+ * broker. A message is a row in cache_invalidations; every instance polls for
+ * rows newer than the last one it applied, so a change made on one node is seen
+ * by the others within roughly {@code coherence.poll-interval-ms}.
+ *
+ * Auto-increment ids can commit out of order, so ids skipped over by a poll are
+ * remembered and looked up again on later polls for {@code coherence.gap-timeout-ms}.
+ * A transaction that commits within that window is still delivered. Polling runs
+ * on its own thread, so slow @Scheduled jobs cannot delay it.
+ */
+@Component
+public class CoherenceBus {
+
+    private static final Logger log = LoggerFactory.getLogger(CoherenceBus.class);
+
+    private static final int MAX_TRACKED_GAPS = 10_000;
+
+    private final CacheInvalidationRepository invalidationRepository;
+    private final String nodeId;
+    private final int batchSize;
+    private final long retentionMillis;
+    private final long pollIntervalMillis;
+    private final long gapTimeoutMillis;
+
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "coherence-poller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this: skipped id -> when it was first noticed
+    private final Map<Long, Long> gaps = new HashMap<>();
+    private long lastSeenId;
+
+    public CoherenceBus(CacheInvalidationRepository invalidationRepository,
+                        @Value("${coherence.node-id:}") String nodeId,
+                        @Value("${coherence.batch-size:500}") int batchSize,
+                        @Value("${coherence.retention-ms:600000}") long retentionMillis,
+                        @Value("${coherence.poll-interval-ms:500}") long pollIntervalMillis,
+                        @Value("${coherence.gap-timeout-ms:60000}") long gapTimeoutMillis) {
+        this.invalidationRepository = invalidationRepository;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.gapTimeoutMillis = gapTimeoutMillis;
+    }
+
+    @PostConstruct
+    void init() {
+        // Local caches start empty, so older invalidations are irrelevant to this node
+        synchronized (this) {
+            lastSeenId = invalidationRepository.findMaxId();
+        }
+        schedule(this::poll, pollIntervalMillis);
+        log.info("Cache coherence node {} starting after invalidation {}", nodeId, lastSeenId);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public void register(String region, Consumer<String> listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Runs {@code task} every {@code intervalMillis} on the coherence thread, for
+     * periodic resyncs that must not queue behind unrelated scheduled jobs.
+     */
+    public void schedule(Runnable task, long intervalMillis) {
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Coherence task failed", e);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Drops {@code key} from {@code region} on every instance. Inside a
+     * transaction the row commits with the caller's change and the local cache
+     * is only cleared after commit, so no node can re-cache the old value.
+     */
+    @Transactional
+    public void invalidate(String region, String key) {
+        invalidationRepository.save(new CacheInvalidation(region, key, nodeId));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(region, key);
+                }
+            });
+        } else {
+            apply(region, key);
+        }
+    }
+
+    // Delivers key to the listeners of region on every other instance; the caller has already handled it locally
+    @Transactional
+    public void broadcast(String region, String key) {
+        invalidationRepository.save(new CacheInvalidation(region, key, nodeId));
+    }
+
+    public synchronized void poll() {
+        long now = System.currentTimeMillis();
+
+        if (!gaps.isEmpty()) {
+            gaps.values().removeIf(noticedAt -> noticedAt < now - gapTimeoutMillis);
+            recheckGaps();
+        }
+
+        long untracked = 0;
+        List<CacheInvalidation> batch;
+        do {
+            batch = invalidationRepository.findByIdGreaterThanOrderByIdAsc(lastSeenId, PageRequest.of(0, batchSize));
+            for (CacheInvalidation invalidation : batch) {
+                long missing = lastSeenId + 1;
+                for (; missing < invalidation.getId() && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                    gaps.put(missing, now);
+                }
+                untracked += invalidation.getId() - missing;
+                deliver(invalidation);
+                lastSeenId = invalidation.getId();
+            }
+        } while (batch.size() == batchSize);
+
+        if (untracked > 0) {
+            log.warn("Not tracking {} skipped invalidation ids, {} already pending; if they commit late they "
+                    + "are only covered by cache TTLs and resyncs", untracked, MAX_TRACKED_GAPS);
+        }
+    }
+
+    // Looks up skipped ids in pages of batchSize, so a long gap list never becomes one huge IN query
+    private void recheckGaps() {
+        List<Long> pending = new ArrayList<>(gaps.keySet());
+        for (int from = 0; from < pending.size(); from += batchSize) {
+            List<Long> page = pending.subList(from, Math.min(from + batchSize, pending.size()));
+            for (CacheInvalidation late : invalidationRepository.findAllById(page)) {
+                gaps.remove(late.getId());
+                deliver(late);
+            }
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${coherence.prune-interval-ms:60000}")
+    public void prune() {
+        invalidationRepository.deleteByCreatedAtBefore(Instant.now().minusMillis(retentionMillis));
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        // Our own messages were applied locally after commit
+        if (!nodeId.equals(invalidation.getOriginNode())) {
+            apply(invalidation.getRegion(), invalidation.getCacheKey());
+        }
+    }
+
+    private void apply(String region, String key) {
+        List<Consumer<String>> regionListeners = listeners.get(region);
+        if (regionListeners == null) {
+            return;
+        }
+        for (Consumer<String> listener : regionListeners) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                log.warn("Applying invalidation {}/{} failed", region, key, e);
+            }
+        }
+    }
+}
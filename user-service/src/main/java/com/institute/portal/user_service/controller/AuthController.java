@@ -1,44 +1,66 @@
 package com.institute.portal.user_service.controller;
 
+import com.institute.portal.user_service.audit.AuditEventType;
+import com.institute.portal.user_service.audit.AuditLogger;
 import com.institute.portal.user_service.dto.RegisterRequest;
 import com.institute.portal.user_service.model.*;
 import com.institute.portal.user_service.repository.UserRepository;
+import com.institute.portal.user_service.security.ClientIpResolver;
 import com.institute.portal.user_service.security.JwtUtil;
+import com.institute.portal.user_service.security.LoginAttemptService;
 import com.institute.portal.user_service.service.CustomUserDetailsService;
+import com.institute.portal.user_service.service.UserChangeService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/auth")
 public class AuthController {
 
+    private static final String LOCKED_MESSAGE = "Too many failed login attempts, try again later";
+
     private final AuthenticationManager authManager;
     private final CustomUserDetailsService userDetailsService;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserChangeService userChangeService;
+    private final LoginAttemptService loginAttemptService;
+    private final AuditLogger auditLogger;
+    private final ClientIpResolver clientIpResolver;
 
     public AuthController(
             AuthenticationManager authManager,
             CustomUserDetailsService userDetailsService,
             JwtUtil jwtUtil,
             UserRepository userRepository,
-            PasswordEncoder passwordEncoder
+            PasswordEncoder passwordEncoder,
+            UserChangeService userChangeService,
+            LoginAttemptService loginAttemptService,
+            AuditLogger auditLogger,
+            ClientIpResolver clientIpResolver
     ) {
         this.authManager = authManager;
         this.userDetailsService = userDetailsService;
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userChangeService = userChangeService;
+        this.loginAttemptService = loginAttemptService;
+        this.auditLogger = auditLogger;
+        this.clientIpResolver = clientIpResolver;
     }
 
+    @Transactional
     @PostMapping("/register")
-    public ResponseEntity<String> register(@RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<String> register(@RequestBody RegisterRequest registerRequest, HttpServletRequest request) {
         // 1. Check if username already exists
         if (userRepository.findByUsername(registerRequest.getUsername()).isPresent()) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Username already exists");
@@ -52,6 +74,9 @@ public class AuthController {
         newUser.setRole(registerRequest.getRole() != null ? registerRequest.getRole() : Role.STUDENT);
 
         userRepository.save(newUser);
+        userChangeService.record(UserChangeType.CREATED, newUser);
+        auditLogger.logAfterCommit(AuditEventType.REGISTER, newUser.getUsername(), clientIpResolver.resolve(request),
+                "role=" + newUser.getRole());
 
         return ResponseEntity.status(HttpStatus.CREATED).body("User registered successfully");
     }
@@ -59,7 +84,16 @@ public class AuthController {
 
     @PostMapping("/login")
 
-    public ResponseEntity<String> login(@RequestBody AuthRequest authRequest) {
+    public ResponseEntity<String> login(@RequestBody AuthRequest authRequest, HttpServletRequest request) {
+        // Null when the request only identifies our own proxy; then only the username is tracked
+        String clientIp = clientIpResolver.resolve(request);
+
+        // Reject locked accounts/IPs before any DB lookup or BCrypt comparison
+        if (loginAttemptService.isBlocked(authRequest.getUsername(), clientIp)) {
+            auditLogger.log(AuditEventType.LOGIN_BLOCKED, authRequest.getUsername(), clientIp, null);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(LOCKED_MESSAGE);
+        }
+
         try {
             System.out.println("Login endpoint hit");
             System.out.println("Login endpoint called with: " + authRequest.getUsername());
@@ -69,11 +103,18 @@ public class AuthController {
             );
 
             if (authentication.isAuthenticated()) {
+                loginAttemptService.loginSucceeded(authRequest.getUsername());
+                auditLogger.log(AuditEventType.LOGIN_SUCCESS, authRequest.getUsername(), clientIp, null);
                 String token = jwtUtil.generateToken(authRequest.getUsername());
                 System.out.println("Token : " + token);
                 return ResponseEntity.ok(token);
             }
+        } catch (LockedException e) {
+            auditLogger.log(AuditEventType.LOGIN_BLOCKED, authRequest.getUsername(), clientIp, null);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(LOCKED_MESSAGE);
         } catch (AuthenticationException e) {
+            loginAttemptService.loginFailed(authRequest.getUsername(), clientIp);
+            auditLogger.log(AuditEventType.LOGIN_FAILURE, authRequest.getUsername(), clientIp, e.getClass().getSimpleName());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid credentials");
         }
 
@@ -1,56 +1,70 @@
 package com.institute.portal.user_service.controller;
 
+import com.institute.portal.user_service.audit.AuditEventType;
+import com.institute.portal.user_service.audit.AuditLogger;
 import com.institute.portal.user_service.dto.UpdateUserRequest;
+import com.institute.portal.user_service.dto.UserChangeResponse;
 import com.institute.portal.user_service.dto.UserResponse;
 import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.model.UserChangeType;
+import com.institute.portal.user_service.repository.UserChangeEventRepository;
 import com.institute.portal.user_service.repository.UserRepository;
+import com.institute.portal.user_service.security.ClientIpResolver;
 import com.institute.portal.user_service.security.JwtUtil;
+import com.institute.portal.user_service.service.UserChangeService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/user")
 public class UserController {
 
+    private static final int MAX_CHANGES_PAGE = 500;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private UserChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private AuditLogger auditLogger;
+
+    @Autowired
+    private ClientIpResolver clientIpResolver;
+
 
     @GetMapping("/me")
     public ResponseEntity<?> getLoggedInUserDetails() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString(); // fallback
-        }
+        String username = currentUsername();
 
         return userRepository.findByUsername(username)
                 .map(user -> ResponseEntity.ok().body(user))
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Transactional
     @PutMapping("/me")
-    public ResponseEntity<?> updateProfile(@RequestBody UpdateUserRequest updateRequest) {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
+    public ResponseEntity<?> updateProfile(@RequestBody UpdateUserRequest updateRequest, HttpServletRequest request) {
+        String username = currentUsername();
 
         return userRepository.findByUsername(username).map(user -> {
             if (updateRequest.getFullName() != null) {
@@ -62,6 +76,9 @@ public class UserController {
             }
 
             userRepository.save(user);
+            userChangeService.record(UserChangeType.UPDATED, user);
+            auditLogger.logAfterCommit(AuditEventType.PROFILE_UPDATE, username, clientIpResolver.resolve(request),
+                    updateRequest.getPassword() != null && !updateRequest.getPassword().isEmpty() ? "password changed" : null);
             return ResponseEntity.ok("Profile updated successfully");
         }).orElse(ResponseEntity.notFound().build());
     }
@@ -83,15 +100,42 @@ public class UserController {
                 .orElse(ResponseEntity.notFound().build());
     }
 
+    @Transactional
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteUser(@PathVariable Long id) {
-        if (userRepository.existsById(id)) {
-            userRepository.deleteById(id);
-            return ResponseEntity.ok("User deleted successfully.");
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
-        }
+    public ResponseEntity<String> deleteUser(@PathVariable Long id, HttpServletRequest request) {
+        return userRepository.findById(id)
+                .map(user -> {
+                    userRepository.delete(user);
+                    userChangeService.record(UserChangeType.DELETED, user);
+                    auditLogger.logAfterCommit(AuditEventType.USER_DELETE, currentUsername(),
+                            clientIpResolver.resolve(request), "deleted id=" + id + " username=" + user.getUsername());
+                    return ResponseEntity.ok("User deleted successfully.");
+                })
+                .orElse(ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found."));
+    }
+
+    // Pull-based change feed: consumers pass the last position they saw and keep a local replica.
+    // Published rows are pruned after outbox.retention-ms, so a consumer further behind must resync from /all.
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/changes")
+    public ResponseEntity<List<UserChangeResponse>> getChanges(@RequestParam(defaultValue = "0") Long since,
+                                                               @RequestParam(defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_CHANGES_PAGE));
+        return ResponseEntity.ok(
+                changeEventRepository.findByPositionGreaterThanOrderByPositionAsc(since, PageRequest.of(0, pageSize))
+                        .stream().map(UserChangeResponse::new).toList()
+        );
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/audit/stats")
+    public ResponseEntity<Map<String, Long>> getAuditStats() {
+        return ResponseEntity.ok(Map.of(
+                "accepted", auditLogger.getAcceptedCount(),
+                "dropped", auditLogger.getDroppedCount(),
+                "failed", auditLogger.getFailedCount()
+        ));
     }
 
     @GetMapping("/exists/{id}")
@@ -113,6 +157,13 @@ public class UserController {
         );
     }
 
+    private String currentUsername() {
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
 
-
+        // JwtFilter authenticates with a UserPrincipal; any UserDetails works here
+        if (principal instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        return principal.toString(); // fallback
+    }
 }
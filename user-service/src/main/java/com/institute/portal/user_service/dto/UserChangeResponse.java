@@ -0,0 +1,37 @@
+package com.institute.portal.user_service.dto;
+
+import com.institute.portal.user_service.model.UserChangeEvent;
+
+import java.time.Instant;
+
+public class UserChangeResponse {
+    private Long id;
+    private Long position;
+    private String type;
+    private Long userId;
+    private String username;
+    private String fullName;
+    private String role;
+    private Instant createdAt;
+
+    public UserChangeResponse(UserChangeEvent event) {
+        this.id = event.getId();
+        this.position = event.getPosition();
+        this.type = event.getType().name();
+        this.userId = event.getUserId();
+        this.username = event.getUsername();
+        this.fullName = event.getFullName();
+        this.role = event.getRole();
+        this.createdAt = event.getCreatedAt();
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public Long getPosition() { return position; }
+    public String getType() { return type; }
+    public Long getUserId() { return userId; }
+    public String getUsername() { return username; }
+    public String getFullName() { return fullName; }
+    public String getRole() { return role; }
+    public Instant getCreatedAt() { return createdAt; }
+}
@@ -1,5 +1,7 @@
 package com.institute.portal.user_service.dto;
 
+import com.institute.portal.user_service.model.Role;
+
 public class UserResponse {
     private Long id;
     private String username;
@@ -13,6 +15,11 @@ public class UserResponse {
         this.role = role;
     }
 
+    // Used by JPQL constructor expressions, which select the enum directly
+    public UserResponse(Long id, String username, String fullName, Role role) {
+        this(id, username, fullName, role != null ? role.name() : null);
+    }
+
     // Getters
     public Long getId() { return id; }
     public String getUsername() { return username; }
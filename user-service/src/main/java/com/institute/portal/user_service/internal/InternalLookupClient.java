@@ -0,0 +1,162 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.institute.portal.user_service.internal.InternalLookupProtocol.*;
+
+/**
+ * Client for {@link InternalLookupServer}. Safe to share between threads: many
+ * lookups can be in flight on the single connection and a reader thread
+ * completes them as responses arrive. Missing users come back as {@code null}
+ * entries at the matching position.
+ */
+public class InternalLookupClient implements Closeable {
+
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final AtomicInteger nextRequestId = new AtomicInteger();
+    private final Map<Integer, CompletableFuture<List<UserResponse>>> pending = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public InternalLookupClient(String host, int port, String secret) throws IOException {
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress(host, port));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+        try {
+            handshake(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        Thread.ofPlatform().name("internal-lookup-reader").daemon().start(this::readLoop);
+    }
+
+    private void handshake(byte[] secret) throws IOException {
+        if (in.readInt() != HANDSHAKE_MAGIC || in.readByte() != VERSION) {
+            throw new IOException("Not an internal lookup endpoint, or unsupported protocol version");
+        }
+        byte[] nonce = new byte[NONCE_BYTES];
+        in.readFully(nonce);
+        out.write(handshakeMac(secret, nonce));
+        out.flush();
+
+        if (in.readByte() != HANDSHAKE_OK) {
+            throw new IOException("Internal lookup handshake rejected");
+        }
+    }
+
+    public CompletableFuture<List<UserResponse>> findByIds(List<Long> ids) {
+        return send(OP_BY_ID, ids.size(), body -> {
+            for (Long id : ids) {
+                body.writeLong(id);
+            }
+        });
+    }
+
+    public CompletableFuture<List<UserResponse>> findByUsernames(List<String> usernames) {
+        return send(OP_BY_USERNAME, usernames.size(), body -> {
+            for (String username : usernames) {
+                body.writeUTF(username);
+            }
+        });
+    }
+
+    private CompletableFuture<List<UserResponse>> send(byte op, int count, BodyWriter writer) {
+        CompletableFuture<List<UserResponse>> future = new CompletableFuture<>();
+        if (count > MAX_BATCH) {
+            future.completeExceptionally(new IllegalArgumentException("At most " + MAX_BATCH + " keys per lookup"));
+            return future;
+        }
+
+        int requestId = nextRequestId.incrementAndGet();
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + count * 16);
+            DataOutputStream body = new DataOutputStream(bytes);
+            body.writeInt(requestId);
+            body.writeByte(op);
+            body.writeShort(count);
+            writer.write(body);
+
+            pending.put(requestId, future);
+            if (closed) {
+                throw new IOException("Internal lookup connection is closed");
+            }
+            synchronized (out) {
+                out.writeInt(bytes.size());
+                bytes.writeTo(out);
+                out.flush();
+            }
+        } catch (IOException e) {
+            pending.remove(requestId);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    private void readLoop() {
+        try {
+            while (!closed) {
+                int length = in.readInt();
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+
+                DataInputStream response = new DataInputStream(new ByteArrayInputStream(frame));
+                int requestId = response.readInt();
+                byte status = response.readByte();
+                int count = response.readUnsignedShort();
+
+                CompletableFuture<List<UserResponse>> future = pending.remove(requestId);
+                if (future == null) {
+                    continue;
+                }
+                if (status != STATUS_OK) {
+                    future.completeExceptionally(new IOException("Internal lookup " + requestId + " failed with status " + status));
+                    continue;
+                }
+
+                List<UserResponse> users = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    users.add(readUser(response));
+                }
+                future.complete(users);
+            }
+        } catch (IOException e) {
+            closed = true;
+            failPending(e);
+        }
+    }
+
+    private void failPending(IOException cause) {
+        for (Integer requestId : pending.keySet()) {
+            CompletableFuture<List<UserResponse>> future = pending.remove(requestId);
+            if (future != null) {
+                future.completeExceptionally(cause);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        socket.close();
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(DataOutputStream body) throws IOException;
+    }
+}
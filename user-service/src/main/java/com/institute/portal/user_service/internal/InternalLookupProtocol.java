@@ -0,0 +1,96 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * Length-prefixed binary protocol for service-to-service user lookups.
+ * All integers are big-endian, strings use {@link DataOutput#writeUTF}.
+ *
+ * Every connection starts with a challenge-response handshake, and nothing is
+ * served until it succeeds. The shared secret itself never goes over the wire.
+ *
+ * <pre>
+ * server  : int HANDSHAKE_MAGIC | byte VERSION | NONCE_BYTES nonce
+ * client  : MAC_BYTES HMAC-SHA256(secret, nonce)
+ * server  : byte HANDSHAKE_OK | HANDSHAKE_REJECTED (connection closed when rejected)
+ *
+ * request : int frameLength | int requestId | byte op | short count | count x (long id | utf username)
+ * response: int frameLength | int requestId | byte status | short count | count x (byte found [user])
+ * user    : long id | utf username | nullable-utf fullName | nullable-utf role
+ * </pre>
+ *
+ * Results come back in request order. Clients may pipeline any number of
+ * requests on one connection and match responses by requestId.
+ */
+public final class InternalLookupProtocol {
+
+    public static final int HANDSHAKE_MAGIC = 0x55534C4B; // "USLK"
+    public static final byte VERSION = 1;
+    public static final int NONCE_BYTES = 16;
+    public static final int MAC_BYTES = 32;
+    public static final byte HANDSHAKE_OK = 0;
+    public static final byte HANDSHAKE_REJECTED = 1;
+
+    public static final byte OP_BY_ID = 1;
+    public static final byte OP_BY_USERNAME = 2;
+
+    public static final byte STATUS_OK = 0;
+    public static final byte STATUS_BAD_REQUEST = 1;
+    public static final byte STATUS_ERROR = 2;
+
+    public static final int MAX_BATCH = 1000;
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    private InternalLookupProtocol() {}
+
+    static byte[] handshakeMac(byte[] secret, byte[] nonce) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return mac.doFinal(nonce);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+
+    static void writeUser(DataOutput out, UserResponse user) throws IOException {
+        if (user == null) {
+            out.writeByte(0);
+            return;
+        }
+        out.writeByte(1);
+        out.writeLong(user.getId());
+        out.writeUTF(user.getUsername());
+        writeNullable(out, user.getFullName());
+        writeNullable(out, user.getRole());
+    }
+
+    static UserResponse readUser(DataInput in) throws IOException {
+        if (in.readByte() == 0) {
+            return null;
+        }
+        long id = in.readLong();
+        String username = in.readUTF();
+        String fullName = readNullable(in);
+        String role = readNullable(in);
+        return new UserResponse(id, username, fullName, role);
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,252 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+import com.institute.portal.user_service.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.institute.portal.user_service.internal.InternalLookupProtocol.*;
+
+/**
+ * Internal user lookup endpoint on its own port, outside the servlet stack and
+ * the Spring Security filter chain. Callers authenticate each connection with
+ * the shared {@code internal.lookup.secret} (see {@link InternalLookupProtocol});
+ * connections that fail the handshake are closed before any lookup is served.
+ */
+@Component
+@ConditionalOnProperty(name = "internal.lookup.enabled", havingValue = "true")
+public class InternalLookupServer {
+
+    private static final Logger log = LoggerFactory.getLogger(InternalLookupServer.class);
+
+    private static final int MIN_SECRET_LENGTH = 32;
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = 5000;
+
+    private final UserRepository userRepository;
+    private final String host;
+    private final int port;
+    private final byte[] secret;
+    private final SecureRandom random = new SecureRandom();
+
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean running;
+    private ServerSocket serverSocket;
+
+    public InternalLookupServer(UserRepository userRepository,
+                                @Value("${internal.lookup.host:0.0.0.0}") String host,
+                                @Value("${internal.lookup.port:9081}") int port,
+                                @Value("${internal.lookup.secret:}") String secret) {
+        if (secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalStateException("internal.lookup.secret must be at least " + MIN_SECRET_LENGTH
+                    + " characters when internal.lookup.enabled=true");
+        }
+        this.userRepository = userRepository;
+        this.host = host;
+        this.port = port;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(host, port));
+        running = true;
+        Thread.ofPlatform().name("internal-lookup-acceptor").daemon().start(this::acceptLoop);
+        log.info("Internal lookup endpoint listening on {}:{}", host, serverSocket.getLocalPort());
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread.ofVirtual().name("internal-lookup-conn").start(() -> serve(socket));
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Accepting internal lookup connection failed", e);
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024))) {
+
+            if (!handshake(socket, in, out)) {
+                log.warn("Rejected internal lookup connection from {}: handshake failed", socket.getRemoteSocketAddress());
+                return;
+            }
+
+            while (true) {
+                int length;
+                try {
+                    length = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                if (length <= 0 || length > MAX_FRAME_BYTES) {
+                    log.warn("Closing internal lookup connection from {}: bad frame length {}", socket.getRemoteSocketAddress(), length);
+                    return;
+                }
+
+                byte[] frame = new byte[length];
+                in.readFully(frame);
+                byte[] response = handle(frame);
+                out.writeInt(response.length);
+                out.write(response);
+
+                // Pipelined requests already buffered are answered before flushing
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (SocketException e) {
+            // Peer went away or server is stopping
+        } catch (IOException e) {
+            log.warn("Internal lookup connection from {} failed", socket.getRemoteSocketAddress(), e);
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    private boolean handshake(Socket socket, DataInputStream in, DataOutputStream out) throws IOException {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        out.writeInt(HANDSHAKE_MAGIC);
+        out.writeByte(VERSION);
+        out.write(nonce);
+        out.flush();
+
+        byte[] mac = new byte[MAC_BYTES];
+        boolean accepted;
+        socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+        try {
+            in.readFully(mac);
+            accepted = MessageDigest.isEqual(mac, handshakeMac(secret, nonce));
+        } catch (EOFException | SocketTimeoutException e) {
+            accepted = false;
+        }
+        socket.setSoTimeout(0);
+
+        // A peer that half-closed or stalled still gets the rejection before we close
+        out.writeByte(accepted ? HANDSHAKE_OK : HANDSHAKE_REJECTED);
+        out.flush();
+        return accepted;
+    }
+
+    private byte[] handle(byte[] frame) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(frame));
+        int requestId = in.readInt();
+
+        List<UserResponse> results;
+        try {
+            byte op = in.readByte();
+            int count = in.readUnsignedShort();
+            if (count > MAX_BATCH || (op != OP_BY_ID && op != OP_BY_USERNAME)) {
+                return statusOnly(requestId, STATUS_BAD_REQUEST);
+            }
+            if (count == 0) {
+                results = List.of();
+            } else if (op == OP_BY_ID) {
+                results = lookupByIds(in, count);
+            } else {
+                results = lookupByUsernames(in, count);
+            }
+        } catch (EOFException e) {
+            return statusOnly(requestId, STATUS_BAD_REQUEST);
+        } catch (RuntimeException e) {
+            log.error("Internal lookup {} failed", requestId, e);
+            return statusOnly(requestId, STATUS_ERROR);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + results.size() * 64);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(requestId);
+        out.writeByte(STATUS_OK);
+        out.writeShort(results.size());
+        for (UserResponse user : results) {
+            writeUser(out, user);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] statusOnly(int requestId, byte status) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(7);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(requestId);
+        out.writeByte(status);
+        out.writeShort(0);
+        return bytes.toByteArray();
+    }
+
+    private List<UserResponse> lookupByIds(DataInputStream in, int count) throws IOException {
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(in.readLong());
+        }
+
+        Map<Long, UserResponse> byId = new HashMap<>();
+        for (UserResponse user : userRepository.findResponsesByIdIn(ids)) {
+            byId.put(user.getId(), user);
+        }
+
+        List<UserResponse> results = new ArrayList<>(count);
+        for (Long id : ids) {
+            results.add(byId.get(id));
+        }
+        return results;
+    }
+
+    private List<UserResponse> lookupByUsernames(DataInputStream in, int count) throws IOException {
+        List<String> usernames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            usernames.add(in.readUTF());
+        }
+
+        // The users table compares usernames case-insensitively, so "Alice" finds "alice" like the HTTP path does
+        Map<String, UserResponse> byUsername = new HashMap<>();
+        for (UserResponse user : userRepository.findResponsesByUsernameIn(usernames)) {
+            byUsername.put(user.getUsername().toLowerCase(Locale.ROOT), user);
+        }
+
+        List<UserResponse> results = new ArrayList<>(count);
+        for (String username : usernames) {
+            results.add(byUsername.get(username.toLowerCase(Locale.ROOT)));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,38 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Persisted lockout so a restart does not hand attackers a fresh set of guesses
+@Entity
+@Table(name = "account_locks")
+public class AccountLock {
+
+    // "user:<username>" or "ip:<address>"
+    @Id
+    @Column(length = 191)
+    private String lockKey;
+
+    @Column(nullable = false)
+    private Instant lockedUntil;
+
+    public AccountLock() {}
+
+    public AccountLock(String lockKey, Instant lockedUntil) {
+        this.lockKey = lockKey;
+        this.lockedUntil = lockedUntil;
+    }
+
+    public String getLockKey() {
+        return lockKey;
+    }
+
+    public Instant getLockedUntil() {
+        return lockedUntil;
+    }
+
+    public void setLockedUntil(Instant lockedUntil) {
+        this.lockedUntil = lockedUntil;
+    }
+}
@@ -0,0 +1,54 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Mapped so the table is created with the schema; rows are inserted in JDBC batches by AuditLogger
+@Entity
+@Table(name = "audit_log")
+public class AuditRecord {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Instant eventTime;
+
+    @Column(nullable = false, length = 32)
+    private String eventType;
+
+    private String username;
+
+    @Column(length = 64)
+    private String ip;
+
+    private String detail;
+
+    public AuditRecord() {}
+
+    public Long getId() {
+        return id;
+    }
+
+    public Instant getEventTime() {
+        return eventTime;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getIp() {
+        return ip;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
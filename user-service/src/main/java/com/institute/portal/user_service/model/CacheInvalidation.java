@@ -0,0 +1,56 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Shared invalidation log polled by every instance to keep node-local caches coherent
+@Entity
+@Table(name = "cache_invalidations", indexes = @Index(name = "idx_cache_invalidations_created", columnList = "createdAt"))
+public class CacheInvalidation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 64)
+    private String region;
+
+    @Column(nullable = false)
+    private String cacheKey;
+
+    @Column(nullable = false, length = 64)
+    private String originNode;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    public CacheInvalidation() {}
+
+    public CacheInvalidation(String region, String cacheKey, String originNode) {
+        this.region = region;
+        this.cacheKey = cacheKey;
+        this.originNode = originNode;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getCacheKey() {
+        return cacheKey;
+    }
+
+    public String getOriginNode() {
+        return originNode;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,47 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Cluster-wide failed-login count, so guesses spread across instances share one allowance
+@Entity
+@Table(name = "login_failure_counts", indexes = @Index(name = "idx_login_failure_counts_last", columnList = "lastFailure"))
+public class LoginFailureCount {
+
+    // "user:<username>" or "ip:<address>", as in account_locks
+    @Id
+    @Column(length = 191)
+    private String failureKey;
+
+    @Column(nullable = false)
+    private int failures;
+
+    @Column(nullable = false)
+    private Instant lastFailure;
+
+    public LoginFailureCount() {}
+
+    public LoginFailureCount(String failureKey, int failures, Instant lastFailure) {
+        this.failureKey = failureKey;
+        this.failures = failures;
+        this.lastFailure = lastFailure;
+    }
+
+    public String getFailureKey() {
+        return failureKey;
+    }
+
+    public int getFailures() {
+        return failures;
+    }
+
+    public Instant getLastFailure() {
+        return lastFailure;
+    }
+
+    public void record(int failures, Instant lastFailure) {
+        this.failures = failures;
+        this.lastFailure = lastFailure;
+    }
+}
@@ -0,0 +1,31 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+// Single-row lock and position counter for the outbox relay, so only one instance publishes at a time
+@Entity
+@Table(name = "outbox_cursor")
+public class OutboxCursor {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private long lastPosition;
+
+    public OutboxCursor() {}
+
+    public OutboxCursor(String name, long lastPosition) {
+        this.name = name;
+        this.lastPosition = lastPosition;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long nextPosition() {
+        return ++lastPosition;
+    }
+}
@@ -0,0 +1,91 @@
+package com.institute.portal.user_service.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Outbox row, written in the same transaction as the user change it describes.
+// position stays null until the relay publishes the row, and then gives the commit-ordered feed cursor.
+@Entity
+@Table(name = "user_outbox", indexes = {
+        @Index(name = "idx_user_outbox_position", columnList = "position", unique = true),
+        @Index(name = "idx_user_outbox_created", columnList = "createdAt")
+})
+public class UserChangeEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UserChangeType type;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    private String username;
+
+    private String fullName;
+
+    private String role;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Long position;
+
+    private Instant publishedAt;
+
+    public UserChangeEvent() {}
+
+    public UserChangeEvent(UserChangeType type, User user) {
+        this.type = type;
+        this.userId = user.getId();
+        this.username = user.getUsername();
+        this.fullName = user.getFullName();
+        this.role = user.getRole() != null ? user.getRole().name() : null;
+        this.createdAt = Instant.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UserChangeType getType() {
+        return type;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getFullName() {
+        return fullName;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public Long getPosition() {
+        return position;
+    }
+
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void markPublished(long position) {
+        this.position = position;
+        this.publishedAt = Instant.now();
+    }
+}
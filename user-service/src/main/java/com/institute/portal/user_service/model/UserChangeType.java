@@ -0,0 +1,7 @@
+package com.institute.portal.user_service.model;
+
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
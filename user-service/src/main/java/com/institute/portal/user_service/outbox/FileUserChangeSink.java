@@ -0,0 +1,41 @@
+package com.institute.portal.user_service.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.institute.portal.user_service.dto.UserChangeResponse;
+import com.institute.portal.user_service.model.UserChangeEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Appends one JSON line per event, for local consumers that tail the file
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "file")
+public class FileUserChangeSink implements UserChangeSink {
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileUserChangeSink(@Value("${outbox.sink.file.path:user-changes.log}") String path,
+                              ObjectMapper objectMapper) {
+        this.file = Path.of(path);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(UserChangeEvent event) {
+        try {
+            String line = objectMapper.writeValueAsString(new UserChangeResponse(event)) + System.lineSeparator();
+            Files.writeString(file, line, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write user change event " + event.getId(), e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.institute.portal.user_service.outbox;
+
+import com.institute.portal.user_service.model.UserChangeEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Default stand-in until a broker is wired in; consumers read GET /user/changes instead
+@Component
+@ConditionalOnProperty(name = "outbox.sink", havingValue = "log", matchIfMissing = true)
+public class LoggingUserChangeSink implements UserChangeSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingUserChangeSink.class);
+
+    @Override
+    public void publish(UserChangeEvent event) {
+        log.debug("User change {} at position {}: {} user {} ({})",
+                event.getId(), event.getPosition(), event.getType(), event.getUserId(), event.getUsername());
+    }
+}
@@ -0,0 +1,99 @@
+package com.institute.portal.user_service.outbox;
+
+import com.institute.portal.user_service.model.OutboxCursor;
+import com.institute.portal.user_service.model.UserChangeEvent;
+import com.institute.portal.user_service.repository.OutboxCursorRepository;
+import com.institute.portal.user_service.repository.UserChangeEventRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Publishes committed outbox rows in the order the relay sees them and stamps
+ * each with the next feed position. Outbox ids can commit out of order, so the
+ * position, not the id, is what consumers page by. The relay holds a row lock
+ * on the cursor while it runs, so positions are assigned by one instance at a
+ * time and a whole batch becomes visible at once on commit. Delivery to the
+ * sink is at-least-once: if the commit fails after publishing, the rows are
+ * published again.
+ */
+@Component
+public class UserChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(UserChangeRelay.class);
+
+    static final String CURSOR = "user-changes";
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final OutboxCursorRepository cursorRepository;
+    private final UserChangeSink sink;
+    private final int batchSize;
+    private final long retentionMillis;
+
+    public UserChangeRelay(UserChangeEventRepository changeEventRepository,
+                           OutboxCursorRepository cursorRepository,
+                           UserChangeSink sink,
+                           @Value("${outbox.relay.batch-size:100}") int batchSize,
+                           @Value("${outbox.retention-ms:604800000}") long retentionMillis) {
+        this.changeEventRepository = changeEventRepository;
+        this.cursorRepository = cursorRepository;
+        this.sink = sink;
+        this.batchSize = batchSize;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @PostConstruct
+    void ensureCursor() {
+        if (cursorRepository.existsById(CURSOR)) {
+            return;
+        }
+        try {
+            cursorRepository.save(new OutboxCursor(CURSOR, 0));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance created it first
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}", initialDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        Optional<OutboxCursor> locked = cursorRepository.lockByName(CURSOR);
+        if (locked.isEmpty()) {
+            return;
+        }
+        OutboxCursor cursor = locked.get();
+
+        List<UserChangeEvent> pending = changeEventRepository.findByPositionIsNullOrderByIdAsc(PageRequest.of(0, batchSize));
+        for (UserChangeEvent event : pending) {
+            event.markPublished(cursor.nextPosition());
+            try {
+                sink.publish(event);
+            } catch (RuntimeException e) {
+                // Rolls back the whole batch so positions stay gap-free; the sink sees it again next run
+                log.warn("Publishing user change event {} failed, will retry", event.getId(), e);
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return;
+            }
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${outbox.prune-interval-ms:3600000}")
+    public void prune() {
+        long removed = changeEventRepository.deleteByPositionIsNotNullAndCreatedAtBefore(Instant.now().minusMillis(retentionMillis));
+        if (removed > 0) {
+            log.info("Pruned {} published user change events", removed);
+        }
+    }
+}
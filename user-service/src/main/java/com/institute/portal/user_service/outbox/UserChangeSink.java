@@ -0,0 +1,11 @@
+package com.institute.portal.user_service.outbox;
+
+import com.institute.portal.user_service.model.UserChangeEvent;
+
+/**
+ * Destination for relayed user change events. Implementations receive events
+ * in outbox order and should throw if delivery fails so the relay retries.
+ */
+public interface UserChangeSink {
+    void publish(UserChangeEvent event);
+}
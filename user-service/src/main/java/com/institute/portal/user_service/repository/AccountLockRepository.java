@@ -0,0 +1,13 @@
+package com.institute.portal.user_service.repository;
+
+import com.institute.portal.user_service.model.AccountLock;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AccountLockRepository extends JpaRepository<AccountLock, String> {
+    List<AccountLock> findByLockedUntilAfter(Instant now);
+
+    long deleteByLockedUntilBefore(Instant now);
+}
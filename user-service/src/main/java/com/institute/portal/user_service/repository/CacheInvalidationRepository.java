@@ -0,0 +1,18 @@
+package com.institute.portal.user_service.repository;
+
+import com.institute.portal.user_service.model.CacheInvalidation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+    List<CacheInvalidation> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("select coalesce(max(i.id), 0) from CacheInvalidation i")
+    Long findMaxId();
+
+    long deleteByCreatedAtBefore(Instant cutoff);
+}
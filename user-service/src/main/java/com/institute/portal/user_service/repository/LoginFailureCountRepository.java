@@ -0,0 +1,23 @@
+package com.institute.portal.user_service.repository;
+
+import com.institute.portal.user_service.model.LoginFailureCount;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface LoginFailureCountRepository extends JpaRepository<LoginFailureCount, String> {
+
+    // SELECT ... FOR UPDATE: instances adding to the same key take turns
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from LoginFailureCount c where c.failureKey = :key")
+    Optional<LoginFailureCount> lockByKey(@Param("key") String key);
+
+    long deleteByFailureKey(String failureKey);
+
+    long deleteByLastFailureBefore(Instant cutoff);
+}
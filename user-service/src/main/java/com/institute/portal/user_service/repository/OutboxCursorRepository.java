@@ -0,0 +1,21 @@
+package com.institute.portal.user_service.repository;
+
+import com.institute.portal.user_service.model.OutboxCursor;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface OutboxCursorRepository extends JpaRepository<OutboxCursor, String> {
+
+    // SELECT ... FOR UPDATE SKIP LOCKED: empty while another instance is relaying
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("select c from OutboxCursor c where c.name = :name")
+    Optional<OutboxCursor> lockByName(@Param("name") String name);
+}
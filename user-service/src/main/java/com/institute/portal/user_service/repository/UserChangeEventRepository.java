@@ -0,0 +1,16 @@
+package com.institute.portal.user_service.repository;
+
+import com.institute.portal.user_service.model.UserChangeEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface UserChangeEventRepository extends JpaRepository<UserChangeEvent, Long> {
+    List<UserChangeEvent> findByPositionIsNullOrderByIdAsc(Pageable pageable);
+
+    List<UserChangeEvent> findByPositionGreaterThanOrderByPositionAsc(Long position, Pageable pageable);
+
+    long deleteByPositionIsNotNullAndCreatedAtBefore(Instant cutoff);
+}
@@ -1,10 +1,28 @@
 package com.institute.portal.user_service.repository;
 
+import com.institute.portal.user_service.dto.UserResponse;
 import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.security.UserPrincipal;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long>{
     Optional<User> findByUsername(String username);
+
+    @Query("select new com.institute.portal.user_service.security.UserPrincipal(u.id, u.username, u.role) " +
+            "from User u where u.username = :username")
+    Optional<UserPrincipal> findPrincipalByUsername(@Param("username") String username);
+
+    @Query("select new com.institute.portal.user_service.dto.UserResponse(u.id, u.username, u.fullName, u.role) " +
+            "from User u where u.id in :ids")
+    List<UserResponse> findResponsesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select new com.institute.portal.user_service.dto.UserResponse(u.id, u.username, u.fullName, u.role) " +
+            "from User u where u.username in :usernames")
+    List<UserResponse> findResponsesByUsernameIn(@Param("usernames") Collection<String> usernames);
 }
@@ -0,0 +1,36 @@
+package com.institute.portal.user_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Pattern;
+
+/**
+ * Resolves the client address used for per-IP login tracking. Tomcat's
+ * RemoteIpValve (server.forward-headers-strategy=native) has already replaced
+ * the remote address with the X-Forwarded-For client when the request came
+ * through a trusted proxy. If the address is still a trusted proxy, the real
+ * client is unknown and null is returned, so a proxy is never counted or locked.
+ */
+@Component
+public class ClientIpResolver {
+
+    private final Pattern trustedProxies;
+
+    public ClientIpResolver(@Value("${server.tomcat.remoteip.internal-proxies:}") String internalProxies) {
+        this.trustedProxies = internalProxies.isBlank() ? null : Pattern.compile(internalProxies);
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        if (address == null || isTrustedProxy(address)) {
+            return null;
+        }
+        return address;
+    }
+
+    public boolean isTrustedProxy(String address) {
+        return trustedProxies != null && trustedProxies.matcher(address).matches();
+    }
+}
@@ -0,0 +1,369 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.coherence.CoherenceBus;
+import com.institute.portal.user_service.model.AccountLock;
+import com.institute.portal.user_service.repository.AccountLockRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks failed logins per username and per source IP so that attackers can be
+ * rejected before we spend a BCrypt comparison or a DB lookup on them.
+ *
+ * Counters live in a ConcurrentHashMap (internally striped) and are updated with
+ * a CAS loop, so request threads never block on each other. A counter loses one
+ * failure every {@code decayMillis}, which lets occasional typos age out. When
+ * {@code maxTrackedKeys} is reached, a new key evicts the weakest of a small
+ * sample of counters, so flooding the map with junk keys cannot stop new
+ * targets from being counted. Usernames are keyed in lower case because the
+ * users table compares them case-insensitively.
+ *
+ * Failures are also added to the cluster-wide counts in {@link SharedLoginFailures},
+ * so spreading guesses across instances does not multiply the allowance. The
+ * request thread only bumps an in-memory delta; the coherence thread writes the
+ * deltas every {@code auth.lockout.share-interval-ms} and locks any key whose
+ * shared count has reached its threshold. A successful login resets the shared
+ * count and, through {@link CoherenceBus}, the counters on other nodes.
+ *
+ * Locks are shared through the account_locks table; besides the bus message,
+ * each node re-reads active locks every {@code auth.lockout.resync-interval-ms}
+ * in case a message was missed.
+ */
+@Component
+public class LoginAttemptService {
+
+    private static final Logger log = LoggerFactory.getLogger(LoginAttemptService.class);
+
+    public static final String REGION = "login-lock";
+    public static final String SUCCESS_REGION = "login-success";
+
+    private static final String USER_PREFIX = "user:";
+    private static final String IP_PREFIX = "ip:";
+
+    // Packed counter state: high 16 bits failure count, low 48 bits time of last failure (epoch millis)
+    private static final int TIME_BITS = 48;
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+    private static final long MAX_FAILURES = 0xFFFF;
+
+    private static final int EVICTION_SAMPLE = 16;
+
+    private final ConcurrentHashMap<String, AtomicLong> failures;
+    private final ConcurrentHashMap<String, Long> lockedUntil = new ConcurrentHashMap<>();
+
+    // Not yet written to SharedLoginFailures: failures per key, and keys that logged in successfully
+    private final ConcurrentHashMap<String, Integer> unsharedFailures = new ConcurrentHashMap<>();
+    private final Set<String> unsharedResets = ConcurrentHashMap.newKeySet();
+    private final AtomicLong unsharedOverflow = new AtomicLong();
+
+    private final AccountLockRepository lockRepository;
+    private final CoherenceBus coherenceBus;
+    private final SharedLoginFailures sharedFailures;
+    private final int maxUserFailures;
+    private final int maxIpFailures;
+    private final long lockDurationMillis;
+    private final long decayMillis;
+    private final int maxTrackedKeys;
+    private final long lockResyncMillis;
+    private final long shareIntervalMillis;
+    private final Clock clock;
+
+    @Autowired
+    public LoginAttemptService(AccountLockRepository lockRepository,
+                               CoherenceBus coherenceBus,
+                               SharedLoginFailures sharedFailures,
+                               @Value("${auth.lockout.max-failures:5}") int maxUserFailures,
+                               @Value("${auth.lockout.ip-max-failures:20}") int maxIpFailures,
+                               @Value("${auth.lockout.duration-ms:900000}") long lockDurationMillis,
+                               @Value("${auth.lockout.decay-ms:300000}") long decayMillis,
+                               @Value("${auth.lockout.max-tracked:100000}") int maxTrackedKeys,
+                               @Value("${auth.lockout.resync-interval-ms:30000}") long lockResyncMillis,
+                               @Value("${auth.lockout.share-interval-ms:500}") long shareIntervalMillis) {
+        this(lockRepository, coherenceBus, sharedFailures, maxUserFailures, maxIpFailures, lockDurationMillis,
+                decayMillis, maxTrackedKeys, lockResyncMillis, shareIntervalMillis, Clock.systemUTC());
+    }
+
+    LoginAttemptService(AccountLockRepository lockRepository, CoherenceBus coherenceBus,
+                        SharedLoginFailures sharedFailures, int maxUserFailures, int maxIpFailures,
+                        long lockDurationMillis, long decayMillis, int maxTrackedKeys, long lockResyncMillis,
+                        long shareIntervalMillis, Clock clock) {
+        this.lockRepository = lockRepository;
+        this.coherenceBus = coherenceBus;
+        this.sharedFailures = sharedFailures;
+        this.maxUserFailures = maxUserFailures;
+        this.maxIpFailures = maxIpFailures;
+        this.lockDurationMillis = lockDurationMillis;
+        this.decayMillis = decayMillis;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.lockResyncMillis = lockResyncMillis;
+        this.shareIntervalMillis = shareIntervalMillis;
+        this.clock = clock;
+        this.failures = new ConcurrentHashMap<>(1024, 0.75f, Runtime.getRuntime().availableProcessors());
+    }
+
+    @PostConstruct
+    void loadPersistedLocks() {
+        resyncLocks();
+        coherenceBus.register(REGION, this::reloadLock);
+        coherenceBus.register(SUCCESS_REGION, failures::remove);
+        coherenceBus.schedule(this::resyncLocks, lockResyncMillis);
+        coherenceBus.schedule(this::shareFailures, shareIntervalMillis);
+    }
+
+    void resyncLocks() {
+        for (AccountLock lock : lockRepository.findByLockedUntilAfter(clock.instant())) {
+            lockedUntil.merge(lock.getLockKey(), lock.getLockedUntil().toEpochMilli(), Math::max);
+        }
+    }
+
+    // Another instance locked this key; pick up its persisted lock
+    private void reloadLock(String key) {
+        lockRepository.findById(key).ifPresentOrElse(
+                lock -> lockedUntil.merge(key, lock.getLockedUntil().toEpochMilli(), Math::max),
+                () -> lockedUntil.remove(key));
+    }
+
+    public boolean isUserLocked(String username) {
+        return username != null && isLocked(userKey(username));
+    }
+
+    public boolean isBlocked(String username, String ip) {
+        return isUserLocked(username) || (ip != null && isLocked(IP_PREFIX + ip));
+    }
+
+    public void loginFailed(String username, String ip) {
+        if (username != null) {
+            recordFailure(userKey(username), maxUserFailures);
+            queueShare(userKey(username));
+        }
+        if (ip != null) {
+            recordFailure(IP_PREFIX + ip, maxIpFailures);
+            queueShare(IP_PREFIX + ip);
+        }
+    }
+
+    private void queueShare(String key) {
+        if (unsharedFailures.size() >= maxTrackedKeys && !unsharedFailures.containsKey(key)) {
+            // Still counted on this node; shareFailures reports how many were not shared
+            unsharedOverflow.incrementAndGet();
+            return;
+        }
+        unsharedFailures.merge(key, 1, Integer::sum);
+    }
+
+    public void loginSucceeded(String username) {
+        if (username != null) {
+            String key = userKey(username);
+            failures.remove(key);
+            unsharedFailures.remove(key);
+            unsharedResets.add(key);
+        }
+    }
+
+    /**
+     * Writes failures and successes collected since the last run to the shared
+     * counts, then locks keys whose cluster-wide count reached the threshold.
+     * Runs on the coherence thread.
+     */
+    void shareFailures() {
+        for (Iterator<String> keys = unsharedResets.iterator(); keys.hasNext(); ) {
+            String key = keys.next();
+            keys.remove();
+            if (sharedFailures.reset(key)) {
+                coherenceBus.broadcast(SUCCESS_REGION, key);
+            }
+        }
+
+        long overflow = unsharedOverflow.getAndSet(0);
+        if (overflow > 0) {
+            log.warn("{} login failures were counted locally but not shared: more than {} keys pending", overflow, maxTrackedKeys);
+        }
+
+        Instant now = clock.instant();
+        for (String key : unsharedFailures.keySet()) {
+            Integer count = unsharedFailures.remove(key);
+            if (count == null) {
+                continue;
+            }
+            int total;
+            try {
+                total = sharedFailures.add(key, count, now);
+            } catch (DataIntegrityViolationException e) {
+                // Another instance inserted the first row for this key at the same time
+                total = sharedFailures.add(key, count, now);
+            }
+            int threshold = key.startsWith(USER_PREFIX) ? maxUserFailures : maxIpFailures;
+            if (total >= threshold && !isLocked(key)) {
+                lock(key, now.toEpochMilli());
+            }
+        }
+    }
+
+    // MySQL's default collation matches "Admin" to "admin", so both must share one counter and lock
+    private static String userKey(String username) {
+        return USER_PREFIX + username.toLowerCase(Locale.ROOT);
+    }
+
+    private boolean isLocked(String key) {
+        Long until = lockedUntil.get(key);
+        if (until == null) {
+            return false;
+        }
+        if (until <= clock.millis()) {
+            lockedUntil.remove(key, until);
+            return false;
+        }
+        return true;
+    }
+
+    private void recordFailure(String key, int threshold) {
+        long now = clock.millis();
+        AtomicLong counter;
+        long count;
+        do {
+            counter = counterFor(key, now);
+            long prev;
+            long next;
+            do {
+                prev = counter.get();
+                count = Math.min(decayedCount(prev, now) + 1, MAX_FAILURES);
+                next = (count << TIME_BITS) | (now & TIME_MASK);
+            } while (!counter.compareAndSet(prev, next));
+            // If another thread evicted the counter meanwhile, count the failure on a tracked one
+        } while (failures.get(key) != counter);
+
+        if (count >= threshold) {
+            lock(key, now);
+        }
+    }
+
+    private AtomicLong counterFor(String key, long now) {
+        AtomicLong counter = failures.get(key);
+        if (counter != null) {
+            return counter;
+        }
+        while (failures.size() >= maxTrackedKeys && evictWeakest(now)) {
+            // Make room for the new key
+        }
+        return failures.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    /*
+     * Drops the counter with the lowest decayed count (oldest failure on ties)
+     * among a small sample taken from a random part of the table. Counters that
+     * were just created and not yet incremented are never chosen.
+     */
+    private boolean evictWeakest(long now) {
+        Spliterator<Map.Entry<String, AtomicLong>> region = failures.entrySet().spliterator();
+        // Each split halves the table range, so this picks a random range in O(log n) steps
+        while (region.estimateSize() > 4L * EVICTION_SAMPLE) {
+            Spliterator<Map.Entry<String, AtomicLong>> prefix = region.trySplit();
+            if (prefix == null) {
+                break;
+            }
+            if (ThreadLocalRandom.current().nextBoolean()) {
+                region = prefix;
+            }
+        }
+
+        Victim victim = new Victim(now);
+        for (int i = 0; i < EVICTION_SAMPLE && region.tryAdvance(victim::consider); i++) {
+            // Sampling
+        }
+        if (victim.key == null) {
+            // The random range was empty or held only fresh counters
+            for (Map.Entry<String, AtomicLong> entry : failures.entrySet()) {
+                victim.consider(entry);
+                if (victim.key != null) {
+                    break;
+                }
+            }
+        }
+        return victim.key != null && failures.remove(victim.key) != null;
+    }
+
+    private final class Victim {
+        private final long now;
+        private String key;
+        private long count = Long.MAX_VALUE;
+        private long time = Long.MAX_VALUE;
+
+        private Victim(long now) {
+            this.now = now;
+        }
+
+        private void consider(Map.Entry<String, AtomicLong> entry) {
+            long state = entry.getValue().get();
+            if (state == 0) {
+                return;
+            }
+            long candidateCount = decayedCount(state, now);
+            long candidateTime = state & TIME_MASK;
+            if (candidateCount < count || (candidateCount == count && candidateTime < time)) {
+                key = entry.getKey();
+                count = candidateCount;
+                time = candidateTime;
+            }
+        }
+    }
+
+    int trackedKeys() {
+        return failures.size();
+    }
+
+    private long decayedCount(long state, long now) {
+        long count = state >>> TIME_BITS;
+        if (count == 0) {
+            return 0;
+        }
+        long elapsed = now - (state & TIME_MASK);
+        long decayed = elapsed / decayMillis;
+        return Math.max(0, count - decayed);
+    }
+
+    private void lock(String key, long now) {
+        long until = now + lockDurationMillis;
+        Long previous = lockedUntil.put(key, until);
+        failures.remove(key);
+        if (previous == null || previous <= now) {
+            log.warn("Login locked for {} until {}", key, Instant.ofEpochMilli(until));
+        }
+        try {
+            lockRepository.save(new AccountLock(key, Instant.ofEpochMilli(until)));
+            coherenceBus.invalidate(REGION, key);
+        } catch (RuntimeException e) {
+            // The in-memory lock still applies; only restart survival and other nodes miss it
+            log.error("Could not persist login lock for {}", key, e);
+        }
+    }
+
+    @Transactional
+    @Scheduled(fixedDelayString = "${auth.lockout.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = clock.millis();
+
+        failures.entrySet().removeIf(e -> decayedCount(e.getValue().get(), now) == 0);
+        lockedUntil.entrySet().removeIf(e -> e.getValue() <= now);
+
+        lockRepository.deleteByLockedUntilBefore(Instant.ofEpochMilli(now));
+        // Shared counts this old have decayed to zero even at the larger threshold
+        sharedFailures.deleteOlderThan(Instant.ofEpochMilli(now - decayMillis * Math.max(maxUserFailures, maxIpFailures)));
+    }
+}
@@ -0,0 +1,78 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.coherence.CoherenceBus;
+import com.institute.portal.user_service.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local cache of {@link UserPrincipal} by username in front of
+ * {@link UserRepository}, so JwtFilter does not query the database on every
+ * request. Entries are dropped cluster-wide through {@link CoherenceBus} when a
+ * user changes, and expire after a TTL as a backstop.
+ *
+ * A load that overlaps an invalidation is returned but not cached: the row it
+ * read may predate the change that was just invalidated.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String REGION = "principal";
+
+    private final UserRepository userRepository;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped by every invalidation
+    private final AtomicLong generation = new AtomicLong();
+
+    public PrincipalCache(UserRepository userRepository,
+                          CoherenceBus coherenceBus,
+                          @Value("${coherence.principal-cache.ttl-ms:60000}") long ttlMillis,
+                          @Value("${coherence.principal-cache.max-entries:50000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        coherenceBus.register(REGION, this::invalidate);
+    }
+
+    private void invalidate(String username) {
+        generation.incrementAndGet();
+        entries.remove(username);
+    }
+
+    public Optional<UserPrincipal> findByUsername(String username) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(username);
+        if (entry != null && entry.expiresAt > now) {
+            return Optional.of(entry.principal);
+        }
+
+        long loadGeneration = generation.get();
+        Optional<UserPrincipal> principal = userRepository.findPrincipalByUsername(username);
+        if (principal.isPresent() && entries.size() < maxEntries) {
+            Entry loaded = new Entry(principal.get(), now + ttlMillis);
+            entries.put(username, loaded);
+            // Checked after the put: an invalidation that bumps the generation later also removes the entry itself
+            if (generation.get() != loadGeneration) {
+                entries.remove(username, loaded);
+            }
+        } else if (principal.isEmpty()) {
+            entries.remove(username);
+        }
+        return principal;
+    }
+
+    @Scheduled(fixedDelayString = "${coherence.principal-cache.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private record Entry(UserPrincipal principal, long expiresAt) {}
+}
@@ -0,0 +1,27 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.model.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+// One shared, immutable authority list per role instead of building "ROLE_" + name on every call
+public final class RoleAuthorities {
+
+    private static final Map<Role, List<GrantedAuthority>> AUTHORITIES = new EnumMap<>(Role.class);
+
+    static {
+        for (Role role : Role.values()) {
+            AUTHORITIES.put(role, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        }
+    }
+
+    private RoleAuthorities() {}
+
+    public static List<GrantedAuthority> of(Role role) {
+        return role != null ? AUTHORITIES.get(role) : List.of();
+    }
+}
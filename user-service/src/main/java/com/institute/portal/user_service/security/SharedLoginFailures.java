@@ -0,0 +1,54 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.model.LoginFailureCount;
+import com.institute.portal.user_service.repository.LoginFailureCountRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+/**
+ * Failed-login counts shared by all instances through login_failure_counts.
+ * {@link LoginAttemptService} adds each node's failures here in batches from a
+ * background thread, never from the request thread, and locks a key once the
+ * cluster-wide count reaches its threshold. Counts decay like the local ones:
+ * one failure per {@code auth.lockout.decay-ms} since the last failure.
+ */
+@Component
+public class SharedLoginFailures {
+
+    private final LoginFailureCountRepository failureCountRepository;
+    private final long decayMillis;
+
+    public SharedLoginFailures(LoginFailureCountRepository failureCountRepository,
+                               @Value("${auth.lockout.decay-ms:300000}") long decayMillis) {
+        this.failureCountRepository = failureCountRepository;
+        this.decayMillis = decayMillis;
+    }
+
+    // Adds failures to key and returns the cluster-wide count
+    @Transactional
+    public int add(String key, int failures, Instant now) {
+        return failureCountRepository.lockByKey(key).map(count -> {
+            long decayed = Math.max(0, count.getFailures() - (now.toEpochMilli() - count.getLastFailure().toEpochMilli()) / decayMillis);
+            int total = (int) Math.min(Integer.MAX_VALUE, decayed + failures);
+            count.record(total, now);
+            return total;
+        }).orElseGet(() -> {
+            failureCountRepository.save(new LoginFailureCount(key, failures, now));
+            return failures;
+        });
+    }
+
+    // Clears key after a successful login; true if any instance had recorded failures for it
+    @Transactional
+    public boolean reset(String key) {
+        return failureCountRepository.deleteByFailureKey(key) > 0;
+    }
+
+    @Transactional
+    public void deleteOlderThan(Instant cutoff) {
+        failureCountRepository.deleteByLastFailureBefore(cutoff);
+    }
+}
@@ -1,6 +1,7 @@
 package com.institute.portal.user_service.service;
 
 import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.security.RoleAuthorities;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -9,14 +10,20 @@ import java.util.*;
 public class CustomUserDetails implements UserDetails{
 
     private final User user;
+    private final boolean accountNonLocked;
 
     public CustomUserDetails(User user) {
+        this(user, true);
+    }
+
+    public CustomUserDetails(User user, boolean accountNonLocked) {
         this.user = user;
+        this.accountNonLocked = accountNonLocked;
     }
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(() -> "ROLE_" + user.getRole().name());
+        return RoleAuthorities.of(user.getRole());
     }
 
     @Override
@@ -36,7 +43,7 @@ public class CustomUserDetails implements UserDetails{
 
     @Override
     public boolean isAccountNonLocked() {
-        return true;
+        return accountNonLocked;
     }
 
     @Override
@@ -2,6 +2,7 @@ package com.institute.portal.user_service.service;
 
 import com.institute.portal.user_service.model.User;
 import com.institute.portal.user_service.repository.UserRepository;
+import com.institute.portal.user_service.security.LoginAttemptService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
@@ -11,12 +12,15 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository repo;
 
+    @Autowired
+    private LoginAttemptService loginAttemptService;
+
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = repo.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
 
-        return new CustomUserDetails(user); // ✅ fixed
+        return new CustomUserDetails(user, !loginAttemptService.isUserLocked(username)); // ✅ fixed
     }
 
 
@@ -0,0 +1,30 @@
+package com.institute.portal.user_service.service;
+
+import com.institute.portal.user_service.coherence.CoherenceBus;
+import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.model.UserChangeEvent;
+import com.institute.portal.user_service.model.UserChangeType;
+import com.institute.portal.user_service.repository.UserChangeEventRepository;
+import com.institute.portal.user_service.security.PrincipalCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+public class UserChangeService {
+
+    private final UserChangeEventRepository changeEventRepository;
+    private final CoherenceBus coherenceBus;
+
+    public UserChangeService(UserChangeEventRepository changeEventRepository, CoherenceBus coherenceBus) {
+        this.changeEventRepository = changeEventRepository;
+        this.coherenceBus = coherenceBus;
+    }
+
+    // MANDATORY: the outbox row must commit or roll back together with the user change
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserChangeType type, User user) {
+        changeEventRepository.save(new UserChangeEvent(type, user));
+        coherenceBus.invalidate(PrincipalCache.REGION, user.getUsername());
+    }
+}
@@ -0,0 +1,66 @@
+package com.institute.portal.user_service.audit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditFileWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void writesOneSanitisedLinePerEvent() throws IOException {
+        Path file = dir.resolve("audit.log");
+        try (AuditFileWriter writer = new AuditFileWriter(file, 1_000_000)) {
+            writer.write(List.of(new AuditEvent(AuditEventType.LOGIN_FAILURE, "eve\nforged\tline", "10.0.0.1", null)));
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0)).endsWith("\tLOGIN_FAILURE\teve forged line\t10.0.0.1\t-");
+    }
+
+    @Test
+    void rotatesOnceTheFileReachesMaxBytes() throws IOException {
+        Path file = dir.resolve("audit.log");
+        try (AuditFileWriter writer = new AuditFileWriter(file, 100)) {
+            writer.write(List.of(event(), event()));
+            writer.write(List.of(event()));
+        }
+
+        try (Stream<Path> files = Files.list(dir)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+        assertThat(Files.readAllLines(file)).hasSize(1);
+    }
+
+    @Test
+    void keepsWritingWhenTheRotationMoveFails() throws IOException {
+        Path file = dir.resolve("audit.log");
+        Path unreachable = dir.resolve("missing-dir").resolve("audit.log.1");
+        try (AuditFileWriter writer = new AuditFileWriter(file, 100) {
+            @Override
+            Path rotatedPath() {
+                return unreachable;
+            }
+        }) {
+            // Rotation fails after the batch was written; the writer reopens the current file and keeps appending
+            writer.write(List.of(event(), event()));
+            writer.write(List.of(event()));
+        }
+
+        assertThat(Files.readAllLines(file)).hasSize(3);
+    }
+
+    private static AuditEvent event() {
+        return new AuditEvent(AuditEventType.LOGIN_SUCCESS, "alice", "10.0.0.1", "some detail to fill the line");
+    }
+}
@@ -0,0 +1,54 @@
+package com.institute.portal.user_service.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLoggerTest {
+
+    // Not started, so events stay in the buffer and only the counters move
+    private final AuditLogger auditLogger = new AuditLogger(null, 16, 16, "target/test-logs/unused.log", 1_000_000, false, 5);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void afterCommitEventIsLoggedOnlyOnceTheTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        auditLogger.logAfterCommit(AuditEventType.USER_DELETE, "admin", "10.0.0.1", "deleted id=7");
+        assertThat(auditLogger.getAcceptedCount()).isZero();
+
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        assertThat(auditLogger.getAcceptedCount()).isEqualTo(1);
+    }
+
+    @Test
+    void afterCommitEventIsNotLoggedOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        auditLogger.logAfterCommit(AuditEventType.REGISTER, "mallory", "10.0.0.2", "role=STUDENT");
+
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        assertThat(auditLogger.getAcceptedCount()).isZero();
+    }
+
+    @Test
+    void oversizedClientValuesAreTruncatedToTheColumnWidths() {
+        String longName = "u".repeat(10_000);
+        String emojiAtBoundary = "d".repeat(AuditEvent.MAX_DETAIL - 1) + "😀";
+
+        AuditEvent event = new AuditEvent(AuditEventType.LOGIN_FAILURE, longName, "f".repeat(500), emojiAtBoundary);
+
+        assertThat(event.getUsername()).hasSize(AuditEvent.MAX_USERNAME);
+        assertThat(event.getIp()).hasSize(AuditEvent.MAX_IP);
+        assertThat(event.getDetail()).isEqualTo("d".repeat(AuditEvent.MAX_DETAIL - 1));
+    }
+}
@@ -0,0 +1,131 @@
+package com.institute.portal.user_service.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditRingBufferTest {
+
+    @Test
+    void roundsCapacityUpToAPowerOfTwo() {
+        assertThat(new AuditRingBuffer(1000).capacity()).isEqualTo(1024);
+        assertThat(new AuditRingBuffer(1024).capacity()).isEqualTo(1024);
+    }
+
+    @Test
+    void rejectsOffersWhenFullAndAcceptsAgainAfterDrain() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(event("u" + i))).isTrue();
+        }
+        assertThat(buffer.offer(event("overflow"))).isFalse();
+
+        List<AuditEvent> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, 2)).isEqualTo(2);
+        assertThat(buffer.offer(event("u4"))).isTrue();
+        assertThat(buffer.offer(event("u5"))).isTrue();
+        assertThat(buffer.offer(event("overflow"))).isFalse();
+
+        buffer.drainTo(drained, 10);
+        assertThat(drained).extracting(AuditEvent::getUsername).containsExactly("u0", "u1", "u2", "u3", "u4", "u5");
+    }
+
+    @Test
+    void preservesOrderAcrossManyWraparounds() {
+        AuditRingBuffer buffer = new AuditRingBuffer(8);
+        List<AuditEvent> drained = new ArrayList<>();
+        int next = 0;
+
+        for (int round = 0; round < 1_000; round++) {
+            int burst = 1 + round % 8;
+            for (int i = 0; i < burst; i++) {
+                assertThat(buffer.offer(event(Integer.toString(next++)))).isTrue();
+            }
+            buffer.drainTo(drained, 3);
+            buffer.drainTo(drained, 8);
+        }
+
+        assertThat(drained).hasSize(next);
+        for (int i = 0; i < next; i++) {
+            assertThat(drained.get(i).getUsername()).isEqualTo(Integer.toString(i));
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseNothingBeyondCountedDropsAndKeepPerProducerOrder() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(64);
+        int producers = 8;
+        int perProducer = 50_000;
+        AtomicLong accepted = new AtomicLong();
+        AtomicLong dropped = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            String producer = "p" + p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    if (buffer.offer(new AuditEvent(AuditEventType.LOGIN_SUCCESS, producer, null, Integer.toString(i)))) {
+                        accepted.incrementAndGet();
+                    } else {
+                        dropped.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        AtomicBoolean producing = new AtomicBoolean(true);
+        List<AuditEvent> drained = new ArrayList<>();
+        Thread consumer = new Thread(() -> {
+            List<AuditEvent> batch = new ArrayList<>();
+            while (producing.get() || buffer.drainTo(batch, 16) > 0) {
+                buffer.drainTo(batch, 16);
+                drained.addAll(batch);
+                batch.clear();
+            }
+        });
+        consumer.start();
+
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        producing.set(false);
+        consumer.join();
+
+        assertThat(accepted.get() + dropped.get()).isEqualTo((long) producers * perProducer);
+        assertThat(drained).hasSize((int) accepted.get());
+
+        Map<String, Integer> lastSeen = new HashMap<>();
+        for (AuditEvent event : drained) {
+            int sequence = Integer.parseInt(event.getDetail());
+            Integer previous = lastSeen.put(event.getUsername(), sequence);
+            if (previous != null) {
+                assertThat(sequence).isGreaterThan(previous);
+            }
+        }
+    }
+
+    private static AuditEvent event(String username) {
+        return new AuditEvent(AuditEventType.LOGIN_SUCCESS, username, "127.0.0.1", null);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.institute.portal.user_service.coherence;
+
+import com.institute.portal.user_service.model.CacheInvalidation;
+import com.institute.portal.user_service.repository.CacheInvalidationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class CoherenceBusTest {
+
+    private static final int BATCH_SIZE = 2;
+
+    private final List<CacheInvalidation> table = new ArrayList<>();
+    private final List<String> applied = new ArrayList<>();
+    private CacheInvalidationRepository repository;
+    private CoherenceBus bus;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(CacheInvalidationRepository.class);
+        when(repository.findByIdGreaterThanOrderByIdAsc(anyLong(), any())).thenAnswer(call -> {
+            long after = call.getArgument(0);
+            return table.stream().filter(row -> row.getId() > after).limit(BATCH_SIZE).toList();
+        });
+        when(repository.findAllById(any())).thenAnswer(call -> {
+            Collection<Long> ids = call.getArgument(0);
+            return table.stream().filter(row -> ids.contains(row.getId())).toList();
+        });
+
+        bus = new CoherenceBus(repository, "node-a", BATCH_SIZE, 600_000, 500, 60_000);
+        bus.register("principal", applied::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        bus.shutdown();
+    }
+
+    @Test
+    void idCommittedAfterAHigherOneIsDeliveredOnALaterPoll() {
+        commit(3, "fast", "node-b");
+        bus.poll();
+        assertThat(applied).containsExactly("fast");
+
+        commit(2, "slow", "node-b");
+        bus.poll();
+        assertThat(applied).containsExactly("fast", "slow");
+
+        // Delivered once; the gap is no longer tracked
+        bus.poll();
+        assertThat(applied).containsExactly("fast", "slow");
+    }
+
+    @Test
+    void ownInvalidationsAreNotAppliedAgain() {
+        commit(1, "mine", "node-a");
+        commit(2, "theirs", "node-b");
+        bus.poll();
+        assertThat(applied).containsExactly("theirs");
+    }
+
+    @Test
+    void skippedIdsAreRecheckedInPages() {
+        commit(10, "after-gap", "node-b");
+        bus.poll();
+        bus.poll();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Iterable<Long>> pages = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, times(5)).findAllById(pages.capture());
+        assertThat(pages.getAllValues()).allSatisfy(page -> assertThat(page).hasSizeLessThanOrEqualTo(BATCH_SIZE));
+    }
+
+    private void commit(long id, String key, String originNode) {
+        CacheInvalidation row = new CacheInvalidation("principal", key, originNode);
+        ReflectionTestUtils.setField(row, "id", id);
+        table.add(row);
+    }
+}
@@ -0,0 +1,182 @@
+package com.institute.portal.user_service.coherence;
+
+import com.institute.portal.user_service.UserServiceApplication;
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.model.UserChangeType;
+import com.institute.portal.user_service.repository.UserRepository;
+import com.institute.portal.user_service.security.LoginAttemptService;
+import com.institute.portal.user_service.security.PrincipalCache;
+import com.institute.portal.user_service.security.UserPrincipal;
+import com.institute.portal.user_service.service.UserChangeService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs two user-service instances in one JVM against a shared H2 database, the
+ * same way several instances share MySQL on one box, and checks that state
+ * changed on one node reaches the other.
+ */
+class MultiInstanceCoherenceTest {
+
+    private static final long POLL_MILLIS = 100;
+    private static final long DELIVERY_TIMEOUT_MILLIS = 5_000;
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("node-a");
+        nodeB = startNode("node-b");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        if (nodeB != null) {
+            nodeB.close();
+        }
+        if (nodeA != null) {
+            nodeA.close();
+        }
+    }
+
+    @Test
+    void deletingAUserOnOneNodeEvictsItsPrincipalOnTheOther() {
+        User user = nodeA.getBean(UserRepository.class).save(new User(null, "coherence-delete", "Test User", "x", Role.STUDENT));
+        PrincipalCache cacheOnB = nodeB.getBean(PrincipalCache.class);
+        assertThat(cacheOnB.findByUsername("coherence-delete")).isPresent();
+
+        inTransaction(nodeA, () -> {
+            nodeA.getBean(UserRepository.class).delete(user);
+            nodeA.getBean(UserChangeService.class).record(UserChangeType.DELETED, user);
+        });
+
+        // Without the invalidation node B would serve the cached principal until its TTL
+        assertEventually(() -> cacheOnB.findByUsername("coherence-delete").isEmpty());
+    }
+
+    @Test
+    void invalidationCommittedBehindANewerOneIsStillDelivered() throws Exception {
+        UserRepository users = nodeA.getBean(UserRepository.class);
+        User user = users.save(new User(null, "coherence-gap", "Test User", "x", Role.STUDENT));
+        PrincipalCache cacheOnB = nodeB.getBean(PrincipalCache.class);
+        assertThat(cacheOnB.findByUsername("coherence-gap")).map(UserPrincipal::getRole).contains(Role.STUDENT);
+
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowWriter = new Thread(() -> inTransaction(nodeA, () -> {
+            user.setRole(Role.ADMIN);
+            users.save(user);
+            nodeA.getBean(UserChangeService.class).record(UserChangeType.UPDATED, user);
+            inserted.countDown();
+            await(release);
+        }));
+        slowWriter.start();
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // A newer invalidation commits first and node B polls past the slow writer's id
+        nodeA.getBean(CoherenceBus.class).invalidate(PrincipalCache.REGION, "someone-else");
+        Thread.sleep(5 * POLL_MILLIS);
+        assertThat(cacheOnB.findByUsername("coherence-gap")).map(UserPrincipal::getRole).contains(Role.STUDENT);
+
+        release.countDown();
+        slowWriter.join(5_000);
+
+        assertEventually(() -> cacheOnB.findByUsername("coherence-gap")
+                .map(principal -> principal.getRole() == Role.ADMIN).orElse(false));
+    }
+
+    @Test
+    void lockOnOneNodeIsEnforcedOnTheOther() {
+        LoginAttemptService attemptsOnA = nodeA.getBean(LoginAttemptService.class);
+        for (int i = 0; i < 5; i++) {
+            attemptsOnA.loginFailed("coherence-locked", null);
+        }
+        assertThat(attemptsOnA.isUserLocked("coherence-locked")).isTrue();
+
+        assertEventually(() -> nodeB.getBean(LoginAttemptService.class).isUserLocked("coherence-locked"));
+    }
+
+    @Test
+    void failuresSpreadAcrossNodesShareOneAllowance() throws Exception {
+        LoginAttemptService attemptsOnA = nodeA.getBean(LoginAttemptService.class);
+        LoginAttemptService attemptsOnB = nodeB.getBean(LoginAttemptService.class);
+
+        for (int i = 0; i < 3; i++) {
+            attemptsOnA.loginFailed("coherence-split", null);
+        }
+        Thread.sleep(5 * POLL_MILLIS);
+        attemptsOnB.loginFailed("coherence-split", null);
+        attemptsOnB.loginFailed("coherence-split", null);
+
+        // Neither node saw five failures itself; the shared count did
+        assertEventually(() -> attemptsOnA.isUserLocked("coherence-split") && attemptsOnB.isUserLocked("coherence-split"));
+    }
+
+    @Test
+    void successOnOneNodeResetsFailuresCountedOnTheOther() throws Exception {
+        LoginAttemptService attemptsOnA = nodeA.getBean(LoginAttemptService.class);
+        LoginAttemptService attemptsOnB = nodeB.getBean(LoginAttemptService.class);
+
+        for (int i = 0; i < 3; i++) {
+            attemptsOnB.loginFailed("coherence-reset", null);
+        }
+        Thread.sleep(5 * POLL_MILLIS);
+        attemptsOnA.loginSucceeded("coherence-reset");
+        Thread.sleep(5 * POLL_MILLIS);
+
+        attemptsOnB.loginFailed("coherence-reset", null);
+        attemptsOnB.loginFailed("coherence-reset", null);
+        Thread.sleep(5 * POLL_MILLIS);
+        assertThat(attemptsOnB.isUserLocked("coherence-reset")).isFalse();
+        assertThat(attemptsOnA.isUserLocked("coherence-reset")).isFalse();
+    }
+
+    private static ConfigurableApplicationContext startNode(String nodeId) {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("test")
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:coherence-it;DB_CLOSE_DELAY=-1",
+                        "--coherence.node-id=" + nodeId,
+                        "--coherence.poll-interval-ms=" + POLL_MILLIS,
+                        "--auth.lockout.share-interval-ms=" + POLL_MILLIS,
+                        "--audit.file.path=target/test-logs/audit-" + nodeId + ".log");
+    }
+
+    private static void inTransaction(ConfigurableApplicationContext node, Runnable work) {
+        new TransactionTemplate(node.getBean(PlatformTransactionManager.class)).executeWithoutResult(status -> work.run());
+    }
+
+    private static void assertEventually(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + DELIVERY_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("delivered within %d ms", DELIVERY_TIMEOUT_MILLIS).isLessThan(deadline);
+            try {
+                Thread.sleep(POLL_MILLIS / 2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.repository.UserRepository;
+import com.institute.portal.user_service.security.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compares GET /user/{id} (JSON over HTTP, through the security filter chain)
+ * with the binary internal lookup endpoint, both served by the same instance
+ * on H2. Not part of the normal build (the class name does not match
+ * surefire's includes); run it with {@code mvn test -Dtest=InternalLookupBenchmark}.
+ *
+ * Sequential rows wait for each response before sending the next request;
+ * the other rows keep many requests in flight.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "internal.lookup.enabled=true",
+        "internal.lookup.host=127.0.0.1",
+        "internal.lookup.port=0",
+        "internal.lookup.secret=" + InternalLookupBenchmark.SECRET
+})
+@ActiveProfiles("test")
+class InternalLookupBenchmark {
+
+    static final String SECRET = "benchmark-secret-benchmark-secret";
+
+    private static final int USERS = 100;
+    private static final int LOOKUPS = 20_000;
+    private static final int SEQUENTIAL_LOOKUPS = 5_000;
+    private static final int WARMUP = 5_000;
+    private static final int HTTP_IN_FLIGHT = 64;
+    private static final int BATCH = 100;
+
+    @LocalServerPort
+    private int httpPort;
+
+    @Autowired
+    private InternalLookupServer lookupServer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final List<Long> ids = new ArrayList<>();
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            String username = "lookup-bench-" + i;
+            User user = userRepository.findByUsername(username)
+                    .orElseGet(() -> userRepository.save(new User(null, username, "Lookup Bench", "x", Role.STUDENT)));
+            ids.add(user.getId());
+        }
+        if (userRepository.findByUsername("lookup-bench-admin").isEmpty()) {
+            userRepository.save(new User(null, "lookup-bench-admin", "Lookup Bench", "x", Role.ADMIN));
+        }
+        token = jwtUtil.generateToken("lookup-bench-admin");
+    }
+
+    @Test
+    void measure() throws Exception {
+        try (InternalLookupClient client = new InternalLookupClient("127.0.0.1", lookupServer.getPort(), SECRET)) {
+            // Warm up both paths before measuring
+            binaryPipelined(client, lookups(WARMUP), 1);
+            jsonConcurrent(lookups(WARMUP));
+
+            report("json GET /user/{id}, sequential", SEQUENTIAL_LOOKUPS, jsonSequential(lookups(SEQUENTIAL_LOOKUPS)));
+            report("binary, 1 id/request, sequential", SEQUENTIAL_LOOKUPS, binarySequential(client, lookups(SEQUENTIAL_LOOKUPS)));
+            report("json GET /user/{id}, " + HTTP_IN_FLIGHT + " in flight", LOOKUPS, jsonConcurrent(lookups(LOOKUPS)));
+            report("binary, 1 id/request, pipelined", LOOKUPS, binaryPipelined(client, lookups(LOOKUPS), 1));
+            report("binary, " + BATCH + " ids/request, pipelined", LOOKUPS, binaryPipelined(client, lookups(LOOKUPS), BATCH));
+        }
+    }
+
+    private List<Long> lookups(int count) {
+        List<Long> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add(ids.get(i % ids.size()));
+        }
+        return result;
+    }
+
+    private static long binarySequential(InternalLookupClient client, List<Long> lookups) {
+        long start = System.nanoTime();
+        for (Long id : lookups) {
+            if (client.findByIds(List.of(id)).join().get(0) == null) {
+                throw new IllegalStateException("User " + id + " not found");
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static long binaryPipelined(InternalLookupClient client, List<Long> lookups, int batch) {
+        long start = System.nanoTime();
+        List<CompletableFuture<List<UserResponse>>> futures = new ArrayList<>();
+        for (int i = 0; i < lookups.size(); i += batch) {
+            futures.add(client.findByIds(lookups.subList(i, Math.min(i + batch, lookups.size()))));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        return System.nanoTime() - start;
+    }
+
+    private long jsonSequential(List<Long> lookups) throws Exception {
+        long start = System.nanoTime();
+        for (Long id : lookups) {
+            check(http.send(request(id), HttpResponse.BodyHandlers.ofString()));
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long jsonConcurrent(List<Long> lookups) {
+        long start = System.nanoTime();
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+        for (Long id : lookups) {
+            futures.add(http.sendAsync(request(id), HttpResponse.BodyHandlers.ofString()));
+            // Bound the number of in-flight HTTP requests so we measure the server, not connection setup
+            if (futures.size() == HTTP_IN_FLIGHT) {
+                futures.forEach(future -> check(future.join()));
+                futures.clear();
+            }
+        }
+        futures.forEach(future -> check(future.join()));
+        return System.nanoTime() - start;
+    }
+
+    private HttpRequest request(Long id) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + httpPort + "/user/" + id))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private static void check(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + response.uri() + " returned " + response.statusCode());
+        }
+    }
+
+    private static void report(String label, int lookups, long nanos) {
+        double millis = nanos / 1_000_000.0;
+        System.out.printf("%-40s %8.1f ms  %10.0f lookups/s  %8.1f us/lookup%n",
+                label, millis, lookups / (millis / 1000.0), millis * 1000.0 / lookups);
+    }
+}
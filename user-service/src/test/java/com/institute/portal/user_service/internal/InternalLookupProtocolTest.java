@@ -0,0 +1,55 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InternalLookupProtocolTest {
+
+    @Test
+    void userRoundTripsIncludingNullFields() throws IOException {
+        UserResponse full = roundTrip(new UserResponse(7L, "alice", "Alice A", "ADMIN"));
+        assertThat(full.getId()).isEqualTo(7L);
+        assertThat(full.getUsername()).isEqualTo("alice");
+        assertThat(full.getFullName()).isEqualTo("Alice A");
+        assertThat(full.getRole()).isEqualTo("ADMIN");
+
+        UserResponse sparse = roundTrip(new UserResponse(8L, "bob", null, (String) null));
+        assertThat(sparse.getFullName()).isNull();
+        assertThat(sparse.getRole()).isNull();
+    }
+
+    @Test
+    void notFoundSlotIsASingleByte() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InternalLookupProtocol.writeUser(new DataOutputStream(bytes), null);
+        assertThat(bytes.toByteArray()).containsExactly(0);
+        assertThat(InternalLookupProtocol.readUser(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())))).isNull();
+    }
+
+    @Test
+    void handshakeMacDependsOnSecretAndNonce() {
+        byte[] nonce = new byte[InternalLookupProtocol.NONCE_BYTES];
+        byte[] mac = InternalLookupProtocol.handshakeMac(secret("a"), nonce);
+
+        assertThat(mac).hasSize(InternalLookupProtocol.MAC_BYTES);
+        assertThat(InternalLookupProtocol.handshakeMac(secret("a"), nonce)).isEqualTo(mac);
+        assertThat(InternalLookupProtocol.handshakeMac(secret("b"), nonce)).isNotEqualTo(mac);
+        nonce[0] = 1;
+        assertThat(InternalLookupProtocol.handshakeMac(secret("a"), nonce)).isNotEqualTo(mac);
+    }
+
+    private static UserResponse roundTrip(UserResponse user) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InternalLookupProtocol.writeUser(new DataOutputStream(bytes), user);
+        return InternalLookupProtocol.readUser(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    }
+
+    private static byte[] secret(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+}
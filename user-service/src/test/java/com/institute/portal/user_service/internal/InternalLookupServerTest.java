@@ -0,0 +1,252 @@
+package com.institute.portal.user_service.internal;
+
+import com.institute.portal.user_service.dto.UserResponse;
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.institute.portal.user_service.internal.InternalLookupProtocol.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InternalLookupServerTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef";
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private InternalLookupServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        List<UserResponse> users = List.of(
+                new UserResponse(1L, "alice", "Alice", Role.ADMIN),
+                new UserResponse(2L, "bob", null, Role.STUDENT));
+        when(userRepository.findResponsesByIdIn(any())).thenAnswer(call -> {
+            Collection<?> ids = call.getArgument(0);
+            return users.stream().filter(u -> ids.contains(u.getId())).toList();
+        });
+        when(userRepository.findResponsesByUsernameIn(any())).thenAnswer(call -> {
+            // Like MySQL's default collation, match usernames case-insensitively
+            Collection<String> usernames = call.getArgument(0);
+            return users.stream()
+                    .filter(u -> usernames.stream().anyMatch(name -> name.equalsIgnoreCase(u.getUsername())))
+                    .toList();
+        });
+
+        server = new InternalLookupServer(userRepository, "127.0.0.1", 0, SECRET);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop();
+    }
+
+    @Test
+    void refusesToStartWithoutASecret() {
+        assertThatThrownBy(() -> new InternalLookupServer(userRepository, "127.0.0.1", 0, ""))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsClientWithWrongSecret() {
+        assertThatThrownBy(() -> new InternalLookupClient("127.0.0.1", server.getPort(), "wrong-secret-wrong-secret-wrong!!"))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("rejected");
+    }
+
+    @Test
+    void servesNothingBeforeTheHandshake() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            readChallenge(in);
+
+            // A lookup frame where the MAC is expected is just a bad MAC
+            out.write(lookupFrame(1, OP_BY_ID, 1L));
+            out.write(new byte[MAC_BYTES]);
+            out.flush();
+
+            assertThat(in.readByte()).isEqualTo(HANDSHAKE_REJECTED);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void returnsUsersInRequestOrderWithNotFoundSlots() throws Exception {
+        try (InternalLookupClient client = new InternalLookupClient("127.0.0.1", server.getPort(), SECRET)) {
+            List<UserResponse> byId = client.findByIds(List.of(2L, 99L, 1L)).get(5, TimeUnit.SECONDS);
+            assertThat(byId).hasSize(3);
+            assertThat(byId.get(0).getUsername()).isEqualTo("bob");
+            assertThat(byId.get(0).getFullName()).isNull();
+            assertThat(byId.get(1)).isNull();
+            assertThat(byId.get(2).getRole()).isEqualTo("ADMIN");
+
+            List<UserResponse> byUsername = client.findByUsernames(List.of("nobody", "alice")).get(5, TimeUnit.SECONDS);
+            assertThat(byUsername.get(0)).isNull();
+            assertThat(byUsername.get(1).getId()).isEqualTo(1L);
+
+            assertThat(client.findByIds(List.of()).get(5, TimeUnit.SECONDS)).isEmpty();
+        }
+    }
+
+    @Test
+    void usernameLookupMatchesCaseInsensitivelyLikeTheDatabase() throws Exception {
+        try (InternalLookupClient client = new InternalLookupClient("127.0.0.1", server.getPort(), SECRET)) {
+            List<UserResponse> results = client.findByUsernames(List.of("Alice", "BOB")).get(5, TimeUnit.SECONDS);
+            assertThat(results).extracting(UserResponse::getUsername).containsExactly("alice", "bob");
+        }
+    }
+
+    @Test
+    void peerThatClosesDuringTheHandshakeIsSentARejection() throws IOException {
+        try (Socket socket = new Socket("127.0.0.1", server.getPort())) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            readChallenge(in);
+
+            socket.getOutputStream().write(new byte[MAC_BYTES / 2]);
+            socket.shutdownOutput();
+
+            assertThat(in.readByte()).isEqualTo(HANDSHAKE_REJECTED);
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void pipelinedRequestsAreMatchedByRequestId() throws Exception {
+        try (InternalLookupClient client = new InternalLookupClient("127.0.0.1", server.getPort(), SECRET)) {
+            List<CompletableFuture<List<UserResponse>>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(client.findByIds(List.of((long) (i % 2) + 1)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertThat(futures.get(i).get(5, TimeUnit.SECONDS).get(0).getId()).isEqualTo((long) (i % 2) + 1);
+            }
+        }
+    }
+
+    @Test
+    void clientRejectsOversizedBatchLocally() {
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i <= MAX_BATCH; i++) {
+            ids.add(i);
+        }
+        assertThatThrownBy(() -> {
+            try (InternalLookupClient client = new InternalLookupClient("127.0.0.1", server.getPort(), SECRET)) {
+                client.findByIds(ids).get(5, TimeUnit.SECONDS);
+            }
+        }).isInstanceOf(ExecutionException.class).hasCauseInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void malformedFramesGetBadRequestAndTheConnectionStaysUsable() throws IOException {
+        try (Socket socket = authenticatedSocket()) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+
+            // Unknown op
+            out.write(frame(body -> {
+                body.writeInt(10);
+                body.writeByte(42);
+                body.writeShort(1);
+                body.writeLong(1L);
+            }));
+            // Truncated: count says two ids, only one present
+            out.write(frame(body -> {
+                body.writeInt(11);
+                body.writeByte(OP_BY_ID);
+                body.writeShort(2);
+                body.writeLong(1L);
+            }));
+            // Count above MAX_BATCH
+            out.write(frame(body -> {
+                body.writeInt(12);
+                body.writeByte(OP_BY_ID);
+                body.writeShort(MAX_BATCH + 1);
+            }));
+            out.write(lookupFrame(13, OP_BY_ID, 1L));
+            out.flush();
+
+            for (int requestId = 10; requestId <= 12; requestId++) {
+                in.readInt();
+                assertThat(in.readInt()).isEqualTo(requestId);
+                assertThat(in.readByte()).isEqualTo(STATUS_BAD_REQUEST);
+                assertThat(in.readUnsignedShort()).isZero();
+            }
+
+            in.readInt();
+            assertThat(in.readInt()).isEqualTo(13);
+            assertThat(in.readByte()).isEqualTo(STATUS_OK);
+            assertThat(in.readUnsignedShort()).isEqualTo(1);
+            assertThat(readUser(in).getUsername()).isEqualTo("alice");
+        }
+    }
+
+    @Test
+    void oversizedFrameLengthClosesTheConnection() throws IOException {
+        try (Socket socket = authenticatedSocket()) {
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            out.writeInt(MAX_FRAME_BYTES + 1);
+            out.flush();
+
+            assertThat(socket.getInputStream().read()).isEqualTo(-1);
+        }
+    }
+
+    private Socket authenticatedSocket() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getPort());
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        byte[] nonce = readChallenge(in);
+        out.write(handshakeMac(SECRET.getBytes(StandardCharsets.UTF_8), nonce));
+        out.flush();
+        assertThat(in.readByte()).isEqualTo(HANDSHAKE_OK);
+        return socket;
+    }
+
+    private static byte[] readChallenge(DataInputStream in) throws IOException {
+        assertThat(in.readInt()).isEqualTo(HANDSHAKE_MAGIC);
+        assertThat(in.readByte()).isEqualTo(VERSION);
+        byte[] nonce = new byte[NONCE_BYTES];
+        in.readFully(nonce);
+        return nonce;
+    }
+
+    private static byte[] lookupFrame(int requestId, byte op, long id) throws IOException {
+        return frame(body -> {
+            body.writeInt(requestId);
+            body.writeByte(op);
+            body.writeShort(1);
+            body.writeLong(id);
+        });
+    }
+
+    private static byte[] frame(BodyWriter writer) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        writer.write(new DataOutputStream(body));
+        ByteArrayOutputStream frame = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(frame);
+        out.writeInt(body.size());
+        body.writeTo(out);
+        return frame.toByteArray();
+    }
+
+    private interface BodyWriter {
+        void write(DataOutputStream body) throws IOException;
+    }
+}
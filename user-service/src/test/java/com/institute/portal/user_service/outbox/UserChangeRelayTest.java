@@ -0,0 +1,119 @@
+package com.institute.portal.user_service.outbox;
+
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.model.UserChangeEvent;
+import com.institute.portal.user_service.model.UserChangeType;
+import com.institute.portal.user_service.repository.UserChangeEventRepository;
+import com.institute.portal.user_service.service.UserChangeService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserChangeRelayTest {
+
+    @Autowired
+    private UserChangeRelay relay;
+
+    @Autowired
+    private UserChangeService userChangeService;
+
+    @Autowired
+    private UserChangeEventRepository changeEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void lateCommittingLowerIdIsStillDeliveredAfterTheCursor() throws Exception {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long since = lastPosition();
+
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slowWriter = new Thread(() -> tx.executeWithoutResult(status -> {
+            record(9001L, "slow-writer");
+            inserted.countDown();
+            await(release);
+        }));
+        slowWriter.start();
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        tx.executeWithoutResult(status -> record(9002L, "fast-writer"));
+        relay.relay();
+
+        List<UserChangeEvent> firstPage = changesSince(since);
+        assertThat(firstPage).extracting(UserChangeEvent::getUsername).containsExactly("fast-writer");
+        long cursor = firstPage.get(0).getPosition();
+
+        release.countDown();
+        slowWriter.join(5000);
+        relay.relay();
+
+        List<UserChangeEvent> secondPage = changesSince(cursor);
+        assertThat(secondPage).extracting(UserChangeEvent::getUsername).containsExactly("slow-writer");
+        assertThat(secondPage.get(0).getId()).isLessThan(firstPage.get(0).getId());
+        assertThat(secondPage.get(0).getPosition()).isEqualTo(cursor + 1);
+    }
+
+    @Test
+    void unpublishedRowsAreNotInTheFeed() {
+        long since = lastPosition();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> record(9003L, "not-yet-relayed"));
+
+        assertThat(changesSince(since)).isEmpty();
+        relay.relay();
+        assertThat(changesSince(since)).extracting(UserChangeEvent::getUsername).containsExactly("not-yet-relayed");
+    }
+
+    @Test
+    void changeFeedIsAdminOnly() throws Exception {
+        mockMvc.perform(get("/user/changes").with(user("student").roles("STUDENT")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/user/changes").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isOk());
+    }
+
+    private void record(Long id, String username) {
+        userChangeService.record(UserChangeType.CREATED, new User(id, username, "Test User", "x", Role.STUDENT));
+    }
+
+    private List<UserChangeEvent> changesSince(long position) {
+        return changeEventRepository.findByPositionGreaterThanOrderByPositionAsc(position, PageRequest.of(0, 1000));
+    }
+
+    private long lastPosition() {
+        relay.relay();
+        List<UserChangeEvent> all = changesSince(0);
+        return all.isEmpty() ? 0 : all.get(all.size() - 1).getPosition();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
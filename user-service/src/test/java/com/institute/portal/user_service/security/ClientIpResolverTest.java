@@ -0,0 +1,34 @@
+package com.institute.portal.user_service.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver("10\\.0\\.0\\.\\d{1,3}|127\\.0\\.0\\.1");
+
+    @Test
+    void returnsClientAddress() {
+        assertThat(resolver.resolve(request("203.0.113.7"))).isEqualTo("203.0.113.7");
+    }
+
+    @Test
+    void neverReturnsATrustedProxy() {
+        // RemoteIpValve leaves the proxy address in place when X-Forwarded-For is missing
+        assertThat(resolver.resolve(request("10.0.0.5"))).isNull();
+        assertThat(resolver.resolve(request("127.0.0.1"))).isNull();
+    }
+
+    @Test
+    void withoutConfiguredProxiesEveryAddressIsAClient() {
+        assertThat(new ClientIpResolver("").resolve(request("10.0.0.5"))).isEqualTo("10.0.0.5");
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
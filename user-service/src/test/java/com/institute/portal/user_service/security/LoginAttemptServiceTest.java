@@ -0,0 +1,242 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.coherence.CoherenceBus;
+import com.institute.portal.user_service.model.AccountLock;
+import com.institute.portal.user_service.repository.AccountLockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptServiceTest {
+
+    private static final long LOCK_MILLIS = 60_000;
+    private static final long DECAY_MILLIS = 10_000;
+
+    private final MutableClock clock = new MutableClock();
+    private AccountLockRepository lockRepository;
+    private CoherenceBus coherenceBus;
+    private SharedLoginFailures sharedFailures;
+    private LoginAttemptService service;
+
+    @BeforeEach
+    void setUp() {
+        lockRepository = mock(AccountLockRepository.class);
+        coherenceBus = mock(CoherenceBus.class);
+        sharedFailures = mock(SharedLoginFailures.class);
+        service = newService(100);
+    }
+
+    @Test
+    void locksUsernameAtThresholdUntilTheLockExpires() {
+        for (int i = 0; i < 4; i++) {
+            service.loginFailed("alice", "10.0.0." + i);
+        }
+        assertThat(service.isUserLocked("alice")).isFalse();
+
+        service.loginFailed("alice", "10.0.0.9");
+        assertThat(service.isUserLocked("alice")).isTrue();
+        assertThat(service.isBlocked("alice", "192.168.1.1")).isTrue();
+        verify(lockRepository).save(any(AccountLock.class));
+
+        clock.advance(LOCK_MILLIS);
+        assertThat(service.isUserLocked("alice")).isFalse();
+    }
+
+    @Test
+    void failuresDecayOverTime() {
+        for (int i = 0; i < 4; i++) {
+            service.loginFailed("bob", null);
+        }
+        // Two decay periods take the count from 4 back down to 2
+        clock.advance(2 * DECAY_MILLIS);
+
+        service.loginFailed("bob", null);
+        service.loginFailed("bob", null);
+        assertThat(service.isUserLocked("bob")).isFalse();
+
+        service.loginFailed("bob", null);
+        assertThat(service.isUserLocked("bob")).isTrue();
+    }
+
+    @Test
+    void fullyDecayedCountersAreSwept() {
+        service.loginFailed("carol", null);
+        assertThat(service.trackedKeys()).isEqualTo(1);
+
+        clock.advance(DECAY_MILLIS);
+        service.evictExpired();
+        assertThat(service.trackedKeys()).isZero();
+    }
+
+    @Test
+    void locksSourceIpAcrossUsernames() {
+        for (int i = 0; i < 20; i++) {
+            service.loginFailed("user" + i, "203.0.113.7");
+        }
+        assertThat(service.isBlocked("someone-else", "203.0.113.7")).isTrue();
+        assertThat(service.isBlocked("someone-else", "203.0.113.8")).isFalse();
+    }
+
+    @Test
+    void usernameCasingVariantsShareOneCounterAndLock() {
+        service.loginFailed("admin", null);
+        service.loginFailed("Admin", null);
+        service.loginFailed("ADMIN", null);
+        service.loginFailed("aDmIn", null);
+        assertThat(service.isUserLocked("admin")).isFalse();
+
+        service.loginFailed("AdMiN", null);
+        assertThat(service.isUserLocked("admin")).isTrue();
+        assertThat(service.isUserLocked("Admin")).isTrue();
+        assertThat(service.isBlocked("ADMIN", null)).isTrue();
+    }
+
+    @Test
+    void successfulLoginClearsTheUsernameCounter() {
+        for (int i = 0; i < 4; i++) {
+            service.loginFailed("dave", null);
+        }
+        service.loginSucceeded("dave");
+        service.loginFailed("dave", null);
+        assertThat(service.isUserLocked("dave")).isFalse();
+    }
+
+    @Test
+    void floodOfJunkKeysEvictsWeakCountersInsteadOfDroppingNewOnes() {
+        service = newService(8);
+
+        for (int i = 0; i < 3; i++) {
+            service.loginFailed("target", null);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            clock.advance(1);
+            service.loginFailed("junk" + i, null);
+        }
+        assertThat(service.trackedKeys()).isLessThanOrEqualTo(8);
+
+        // The target kept its count of 3, and brand-new keys are still counted
+        service.loginFailed("target", null);
+        service.loginFailed("target", null);
+        assertThat(service.isUserLocked("target")).isTrue();
+
+        for (int i = 0; i < 5; i++) {
+            service.loginFailed("fresh", null);
+        }
+        assertThat(service.isUserLocked("fresh")).isTrue();
+    }
+
+    @Test
+    void failuresAreSharedInOneBatchOffTheRequestThread() {
+        for (int i = 0; i < 3; i++) {
+            service.loginFailed("erin", "198.51.100.4");
+        }
+        verifyNoInteractions(sharedFailures, coherenceBus);
+
+        service.shareFailures();
+        verify(sharedFailures).add("user:erin", 3, clock.instant());
+        verify(sharedFailures).add("ip:198.51.100.4", 3, clock.instant());
+
+        service.shareFailures();
+        verifyNoMoreInteractions(sharedFailures);
+    }
+
+    @Test
+    void sharedCountAtTheThresholdLocksTheKey() {
+        when(sharedFailures.add(eq("user:frank"), eq(2), any())).thenReturn(5);
+        service.loginFailed("frank", null);
+        service.loginFailed("frank", null);
+        assertThat(service.isUserLocked("frank")).isFalse();
+
+        service.shareFailures();
+        assertThat(service.isUserLocked("frank")).isTrue();
+        verify(coherenceBus).invalidate(LoginAttemptService.REGION, "user:frank");
+    }
+
+    @Test
+    void successResetsTheSharedCountAndTellsOtherNodes() {
+        service.loginFailed("heidi", null);
+        service.loginSucceeded("Heidi");
+        when(sharedFailures.reset("user:heidi")).thenReturn(true);
+
+        service.shareFailures();
+        verify(sharedFailures, never()).add(any(), anyInt(), any());
+        verify(coherenceBus).broadcast(LoginAttemptService.SUCCESS_REGION, "user:heidi");
+    }
+
+    @Test
+    void successOnAnotherNodeClearsTheLocalCounter() {
+        service.loadPersistedLocks();
+        Consumer<String> remoteSuccess = registeredListener(LoginAttemptService.SUCCESS_REGION);
+
+        for (int i = 0; i < 4; i++) {
+            service.loginFailed("ivan", null);
+        }
+        remoteSuccess.accept("user:ivan");
+        service.loginFailed("ivan", null);
+        assertThat(service.isUserLocked("ivan")).isFalse();
+    }
+
+    @Test
+    void resyncPicksUpLocksWrittenByOtherNodes() {
+        service.loadPersistedLocks();
+        assertThat(service.isUserLocked("grace")).isFalse();
+
+        when(lockRepository.findByLockedUntilAfter(any()))
+                .thenReturn(List.of(new AccountLock("user:grace", clock.instant().plusMillis(LOCK_MILLIS))));
+        service.resyncLocks();
+        assertThat(service.isUserLocked("grace")).isTrue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Consumer<String> registeredListener(String region) {
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(coherenceBus).register(eq(region), listener.capture());
+        return listener.getValue();
+    }
+
+    private LoginAttemptService newService(int maxTracked) {
+        return new LoginAttemptService(lockRepository, coherenceBus, sharedFailures, 5, 20, LOCK_MILLIS,
+                DECAY_MILLIS, maxTracked, 30_000, 500, clock);
+    }
+
+    static class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
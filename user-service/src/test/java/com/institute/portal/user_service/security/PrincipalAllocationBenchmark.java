@@ -0,0 +1,164 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.model.User;
+import com.institute.portal.user_service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Bytes allocated per request on the JwtFilter authentication path, against
+ * H2 through the real repositories. Not part of the normal build (the class
+ * name does not match surefire's includes); run it with
+ * {@code mvn test -Dtest=PrincipalAllocationBenchmark}.
+ *
+ * before: parse the JWT three times, load the full User entity, wrap it in a
+ *         UserDetails whose getAuthorities builds a new list each call.
+ * after : parse once, load UserPrincipal through the constructor projection.
+ * cached: as after, served from PrincipalCache.
+ *
+ * The "lookup only" rows leave out JWT parsing, which dominates the full path,
+ * to isolate the entity load versus projection difference.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PrincipalAllocationBenchmark {
+
+    private static final int WARMUP = 10_000;
+    private static final int ITERATIONS = 10_000;
+    private static final String USERNAME = "alloc-bench-user";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        if (userRepository.findByUsername(USERNAME).isEmpty()) {
+            userRepository.save(new User(null, USERNAME, "Allocation Bench",
+                    "$2a$10$abcdefghijklmnopqrstuvABCDEFGHIJKLMNOPQRSTUVWXYZ01234", Role.STUDENT));
+        }
+        token = jwtUtil.generateToken(USERNAME);
+    }
+
+    @Test
+    void measure() {
+        report("before (entity + per-call authorities)", measure(this::before));
+        report("after (projection + shared authorities)", measure(this::after));
+        report("after, PrincipalCache hit", measure(this::cached));
+
+        report("lookup only: before", measure(() -> lookupBefore(USERNAME)));
+        report("lookup only: after", measure(() -> lookupAfter(USERNAME)));
+        report("lookup only: PrincipalCache hit", measure(() -> lookupCached(USERNAME)));
+    }
+
+    private UsernamePasswordAuthenticationToken lookupBefore(String username) {
+        UserDetails details = new LegacyUserDetails(userRepository.findByUsername(username).orElseThrow());
+        return new UsernamePasswordAuthenticationToken(details, null, details.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken lookupAfter(String username) {
+        UserPrincipal principal = userRepository.findPrincipalByUsername(username).orElseThrow();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken lookupCached(String username) {
+        UserPrincipal principal = principalCache.findByUsername(username).orElseThrow();
+        return new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+    }
+
+    private UsernamePasswordAuthenticationToken before() {
+        UsernamePasswordAuthenticationToken authentication = lookupBefore(jwtUtil.extractUsername(token));
+        if (!jwtUtil.validateToken(token, authentication.getName())) {
+            throw new IllegalStateException();
+        }
+        return authentication;
+    }
+
+    private UsernamePasswordAuthenticationToken after() {
+        return lookupAfter(jwtUtil.extractUsername(token));
+    }
+
+    private UsernamePasswordAuthenticationToken cached() {
+        return lookupCached(jwtUtil.extractUsername(token));
+    }
+
+    private static double measure(Supplier<UsernamePasswordAuthenticationToken> path) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += path.get().getAuthorities().size();
+        }
+        long start = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += path.get().getAuthorities().size();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - start;
+        if (sink == 42) {
+            System.out.println();
+        }
+        return (double) allocated / ITERATIONS;
+    }
+
+    private static void report(String label, double bytesPerRequest) {
+        System.out.printf("%-42s %10.0f bytes/request%n", label, bytesPerRequest);
+    }
+
+    // The pre-change CustomUserDetails
+    private record LegacyUserDetails(User user) implements UserDetails {
+        @Override
+        public Collection<? extends GrantedAuthority> getAuthorities() {
+            return List.of(() -> "ROLE_" + user.getRole().name());
+        }
+
+        @Override
+        public String getPassword() {
+            return user.getPassword();
+        }
+
+        @Override
+        public String getUsername() {
+            return user.getUsername();
+        }
+
+        @Override
+        public boolean isAccountNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isAccountNonLocked() {
+            return true;
+        }
+
+        @Override
+        public boolean isCredentialsNonExpired() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+}
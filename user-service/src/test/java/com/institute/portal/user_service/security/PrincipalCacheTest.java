@@ -0,0 +1,71 @@
+package com.institute.portal.user_service.security;
+
+import com.institute.portal.user_service.coherence.CoherenceBus;
+import com.institute.portal.user_service.model.Role;
+import com.institute.portal.user_service.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class PrincipalCacheTest {
+
+    private UserRepository userRepository;
+    private PrincipalCache cache;
+    private Consumer<String> invalidation;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        CoherenceBus coherenceBus = mock(CoherenceBus.class);
+        cache = new PrincipalCache(userRepository, coherenceBus, 60_000, 100);
+
+        ArgumentCaptor<Consumer<String>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(coherenceBus).register(eq(PrincipalCache.REGION), listener.capture());
+        invalidation = listener.getValue();
+    }
+
+    @Test
+    void servesRepeatedLookupsFromTheCache() {
+        when(userRepository.findPrincipalByUsername("alice")).thenReturn(Optional.of(principal(Role.STUDENT)));
+
+        cache.findByUsername("alice");
+        cache.findByUsername("alice");
+        verify(userRepository, times(1)).findPrincipalByUsername("alice");
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        // The row is read, then the change commits and its invalidation arrives before the load returns
+        when(userRepository.findPrincipalByUsername("alice")).thenAnswer(call -> {
+            invalidation.accept("alice");
+            return Optional.of(principal(Role.STUDENT));
+        }).thenReturn(Optional.of(principal(Role.ADMIN)));
+
+        assertThat(cache.findByUsername("alice")).map(UserPrincipal::getRole).contains(Role.STUDENT);
+        assertThat(cache.findByUsername("alice")).map(UserPrincipal::getRole).contains(Role.ADMIN);
+        verify(userRepository, times(2)).findPrincipalByUsername("alice");
+    }
+
+    @Test
+    void invalidationDropsTheCachedEntry() {
+        when(userRepository.findPrincipalByUsername("bob"))
+                .thenReturn(Optional.of(principal(Role.STUDENT)))
+                .thenReturn(Optional.empty());
+
+        cache.findByUsername("bob");
+        invalidation.accept("bob");
+        assertThat(cache.findByUsername("bob")).isEmpty();
+    }
+
+    private static UserPrincipal principal(Role role) {
+        return new UserPrincipal(1L, "alice", role);
+    }
+}